@@ -977,7 +977,7 @@ abstract class AbstractLines implements Lines, Runnable, ActionListener {
             this.pattern = null;
         }
         if (!regExp && !matchCase) {
-            pattern = pattern.toLowerCase();
+            pattern = toLowerCase(pattern);
         }
         while (true) {
             BufferResource<ByteBuffer> br = null;
@@ -1011,8 +1011,7 @@ abstract class AbstractLines implements Lines, Runnable, ActionListener {
                         return new int[]{start + matcher.start(), start + matcher.end()};
                     }
                 } else {
-                    int idx = matchCase ? buff.toString().indexOf(pattern)
-                            : buff.toString().toLowerCase().indexOf(pattern);
+                    int idx = indexOf(buff, pattern, matchCase, false);
                     if (idx != -1) {
                         return new int[]{start + idx, start + idx + pattern.length()};
                     }
@@ -1036,7 +1035,7 @@ abstract class AbstractLines implements Lines, Runnable, ActionListener {
             this.pattern = null;
         }
         if (!regExp && !matchCase) {
-            pattern = pattern.toLowerCase();
+            pattern = toLowerCase(pattern);
         }
         while (true) {
             int end = start;
@@ -1079,8 +1078,7 @@ abstract class AbstractLines implements Lines, Runnable, ActionListener {
                         return new int[]{start + mStart, start + mEnd};
                     }
                 } else {
-                    int idx = matchCase ? buff.toString().lastIndexOf(pattern)
-                            : buff.toString().toLowerCase().lastIndexOf(pattern);
+                    int idx = indexOf(buff, pattern, matchCase, true);
                     if (idx != -1) {
                         return new int[]{start + idx, start + idx + pattern.length()};
                     }
@@ -1094,6 +1092,53 @@ abstract class AbstractLines implements Lines, Runnable, ActionListener {
         return null;
     }
 
+    /**
+     * Searches the buffer for a plain text without copying it to a string.
+     *
+     * @param pattern the text, already lower case if <code>matchCase</code>
+     * is false, see {@link #toLowerCase(String)}
+     * @param last search for the last occurrence rather than the first one
+     * @return index of the occurrence or -1
+     */
+    static int indexOf(CharBuffer buff, String pattern, boolean matchCase, boolean last) {
+        int len = pattern.length();
+        int max = buff.length() - len;
+        if (len == 0) {
+            return max < 0 ? -1 : (last ? max : 0);
+        }
+        char first = pattern.charAt(0);
+        for (int i = last ? max : 0; last ? i >= 0 : i <= max; i += last ? -1 : 1) {
+            char c = buff.get(i);
+            if ((matchCase ? c : Character.toLowerCase(c)) != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < len) {
+                c = buff.get(i + j);
+                if ((matchCase ? c : Character.toLowerCase(c)) != pattern.charAt(j)) {
+                    break;
+                }
+                j++;
+            }
+            if (j == len) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Lower case of the text char by char, so that its length and indexes
+     * keep matching the searched output.
+     */
+    private static String toLowerCase(String s) {
+        char[] arr = s.toCharArray();
+        for (int i = 0; i < arr.length; i++) {
+            arr[i] = Character.toLowerCase(arr[i]);
+        }
+        return new String(arr);
+    }
+
     @Override
     public String toString() {
         return lineStartList.toString();
@@ -45,6 +45,11 @@ class FileMapStorage implements Storage {
      * max possible range to map.. 1 MB
      */
     private static final long MAX_MAP_RANGE = 1024 * 1024;
+    /**
+     * Size of the buffer collecting written data before they are passed
+     * to the file channel.
+     */
+    private static final int PENDING_SIZE = 64 * 1024;
     /**
      * Own request processor
      */
@@ -77,6 +82,12 @@ class FileMapStorage implements Storage {
      * The currently in use buffer.
      */
     private ByteBuffer buffer = null;
+    /**
+     * Data already counted in {@link #bytesWritten}, but not yet written
+     * to the file. Output usually comes line by line, so this saves a
+     * system call per line. It is emptied before the file is read.
+     */
+    private ByteBuffer pending;
     /**
      * The number of bytes that have been written.
      */
@@ -132,6 +143,7 @@ class FileMapStorage implements Storage {
         mappedRange = -1;
         mappedStart = 0;
         master = ByteBuffer.allocateDirect (BASE_BUFFER_SIZE);
+        pending = ByteBuffer.allocateDirect (PENDING_SIZE);
         fileChannel = null;
         buffer = null;
         bytesWritten = 0;
@@ -241,9 +253,16 @@ class FileMapStorage implements Storage {
         bb.flip();
         FileChannel channel = writeChannel();
         if (channel.isOpen()) { //If a thread was terminated while writing, it will be closed
-            Thread.interrupted(); // #186629: must clear interrupt flag or channel will be broken
-            channel.write (bb);
             synchronized (this) {
+                if (pending.remaining() < byteCount) {
+                    writePending(channel);
+                }
+                if (pending.remaining() >= byteCount) {
+                    pending.put(bb);
+                } else {
+                    Thread.interrupted(); // #186629: must clear interrupt flag or channel will be broken
+                    channel.write (bb);
+                }
                 bytesWritten += byteCount;
                 outstandingBufferCount--;
             }
@@ -251,12 +270,38 @@ class FileMapStorage implements Storage {
         return position;
     }
 
+    /**
+     * Writes data collected in {@link #pending} to the file.
+     */
+    private void writePending(FileChannel channel) throws IOException {
+        assert Thread.holdsLock(this);
+        if (pending.position() == 0) {
+            return;
+        }
+        pending.flip();
+        boolean written = false;
+        try {
+            Thread.interrupted(); // #186629: must clear interrupt flag or channel will be broken
+            while (pending.hasRemaining()) {
+                channel.write(pending);
+            }
+            written = true;
+        } finally {
+            if (!written) {
+                // the data not written are lost, do not count them
+                bytesWritten -= pending.remaining();
+            }
+            pending.clear();
+        }
+    }
+
     @Override
     public synchronized void removeBytesFromEnd(int length) throws IOException {
         if (length == 0) {
             return;
         }
         FileChannel channel = writeChannel();
+        writePending(channel);
         channel.position(channel.position() - length);
         bytesWritten -= length;
     }
@@ -274,6 +319,7 @@ class FileMapStorage implements Storage {
         outfile = null;
         buffer = null;
         contents = null;
+        pending.clear();
 
         if (oldChannel != null || oldFile != null) {
             RP.post(new Runnable() {
@@ -329,6 +375,9 @@ class FileMapStorage implements Storage {
         long fileStart = startOffset + start;
         synchronized (this) {
             cont = this.contents == null ? null : this.contents.getBuffer();
+            if (pending.position() > 0 && fileStart + byteCount > mappedRange) {
+                writePending(fileChannel());
+            }
             if (cont == null || fileStart + byteCount > mappedRange || fileStart < mappedStart) {
                 FileChannel ch = fileChannel();
                 mappedStart = Math.max((long)0, fileStart - (MAX_MAP_RANGE /2));
@@ -388,9 +437,15 @@ class FileMapStorage implements Storage {
         if (buffer != null) {
             if (Controller.LOG) Controller.log("FILEMAP STORAGE flush(): " + outstandingBufferCount);
             write (buffer);
-            fileChannel.force(false);
             buffer = null;
         }
+        // the file is only a temporary one read through a mapping, so the data
+        // are not forced to the disk
+        synchronized (this) {
+            if (fileChannel != null && fileChannel.isOpen()) {
+                writePending(fileChannel);
+            }
+        }
     }
 
     public void close() throws IOException {
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.netbeans.core.output2;
+
+import java.nio.CharBuffer;
+import java.util.Locale;
+import junit.framework.TestCase;
+
+/**
+ * Tests of the plain text search in {@link AbstractLines}.
+ */
+public class AbstractLinesTest extends TestCase {
+
+    public AbstractLinesTest(String testName) {
+        super(testName);
+    }
+
+    public void testIndexOfMatchCase() {
+        CharBuffer buff = CharBuffer.wrap("abcABCabcABC");
+        assertEquals(3, AbstractLines.indexOf(buff, "ABC", true, false));
+        assertEquals(9, AbstractLines.indexOf(buff, "ABC", true, true));
+        assertEquals(0, AbstractLines.indexOf(buff, "abc", true, false));
+        assertEquals(6, AbstractLines.indexOf(buff, "abc", true, true));
+        assertEquals(-1, AbstractLines.indexOf(buff, "aBc", true, false));
+        assertEquals(-1, AbstractLines.indexOf(buff, "aBc", true, true));
+    }
+
+    public void testIndexOfIgnoreCase() {
+        CharBuffer buff = CharBuffer.wrap("xxABCxxAbcxx");
+        assertEquals(2, AbstractLines.indexOf(buff, "abc", false, false));
+        assertEquals(7, AbstractLines.indexOf(buff, "abc", false, true));
+        assertEquals(-1, AbstractLines.indexOf(buff, "abd", false, false));
+        assertEquals(-1, AbstractLines.indexOf(buff, "abd", false, true));
+    }
+
+    /**
+     * The text is folded char by char, so a char whose lower case is longer
+     * as a string must not shift the found index.
+     */
+    public void testIndexOfCharByCharFolding() {
+        // capital I with dot above
+        String text = "a\u0130b\u0130c";
+        assertEquals(text.length() + 2, text.toLowerCase(Locale.ROOT).length());
+        CharBuffer buff = CharBuffer.wrap(text);
+        assertEquals(1, AbstractLines.indexOf(buff, "ib", false, false));
+        assertEquals(3, AbstractLines.indexOf(buff, "ic", false, true));
+        assertEquals(1, AbstractLines.indexOf(buff, "i", false, false));
+        assertEquals(3, AbstractLines.indexOf(buff, "i", false, true));
+        assertEquals(-1, AbstractLines.indexOf(buff, "ib", true, false));
+    }
+
+    public void testIndexOfBounds() {
+        CharBuffer buff = CharBuffer.wrap("abcab");
+        assertEquals(0, AbstractLines.indexOf(buff, "abc", true, true));
+        assertEquals(3, AbstractLines.indexOf(buff, "ab", true, true));
+        assertEquals(0, AbstractLines.indexOf(buff, "abcab", true, true));
+        assertEquals(-1, AbstractLines.indexOf(buff, "abcabc", true, false));
+        assertEquals(-1, AbstractLines.indexOf(buff, "abcabc", true, true));
+        assertEquals(0, AbstractLines.indexOf(buff, "", true, false));
+        assertEquals(5, AbstractLines.indexOf(buff, "", true, true));
+        assertEquals(-1, AbstractLines.indexOf(CharBuffer.wrap(""), "a", false, false));
+    }
+}
@@ -21,8 +21,12 @@ package org.netbeans.core.output2;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
 import java.util.Arrays;
 import junit.framework.TestCase;
 import org.openide.util.Exceptions;
@@ -149,6 +153,38 @@ public class StorageTest extends TestCase {
         }
     }
     
+    public void testFailedWriteNotCounted() throws Exception {
+        FileMapStorage storage = (FileMapStorage) filemap;
+        write(storage, "Hello");
+        int size = storage.size();
+        ByteBuffer buf = storage.getWriteBuffer(AbstractLines.toByteIndex(5));
+        buf.asCharBuffer().put("world");
+        buf.position(buf.position() + AbstractLines.toByteIndex(5));
+        storage.write(buf);
+        assertEquals(size + AbstractLines.toByteIndex(5), storage.size());
+
+        // make writing of the pending data fail
+        Field fileChannel = FileMapStorage.class.getDeclaredField("fileChannel");
+        fileChannel.setAccessible(true);
+        FileChannel rw = (FileChannel) fileChannel.get(storage);
+        FileChannel ro = new RandomAccessFile(storage.getOutputFile(), "r").getChannel();
+        fileChannel.set(storage, ro);
+        try {
+            storage.flush();
+            fail("Write to read only channel should fail");
+        } catch (NonWritableChannelException e) {
+            // expected
+        } finally {
+            fileChannel.set(storage, rw);
+            ro.close();
+        }
+        assertEquals("Lost data not counted", size, storage.size());
+        assertEquals(size, rw.size());
+        BufferResource<ByteBuffer> br = storage.getReadBuffer(0, storage.size());
+        assertEquals("Hello", br.getBuffer().asCharBuffer().toString());
+        br.releaseBuffer();
+    }
+
     public void testFileMapStorageCanBeAsLargeAsIntegerMaxValue() {
         System.out.println("testFileMapStorageCanBeAsLargeAsIntegerMaxValue - THIS TEST WILL CREATE A 2 GIGABYTE TEMP FILE!!!!");
         if (true) {
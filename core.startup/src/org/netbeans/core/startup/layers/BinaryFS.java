@@ -91,6 +91,11 @@ final class BinaryFS extends FileSystem implements DataInput {
     /** An empty array of FileObjects. */
     static final FileObject[] NO_CHILDREN = new FileObject[0];
 
+    /** size of an attribute record: int name, byte type, int value */
+    private static final int ATTR_SIZE = 9;
+    /** size of a child reference: int name, byte isFolder, int contentRef */
+    private static final int CHILD_SIZE = 9;
+
     String binaryFile;
 
     // a template-buffer. Should not be operated directly, only duplicated.
@@ -227,8 +232,11 @@ final class BinaryFS extends FileSystem implements DataInput {
     }
 
     final String getString(final ByteBuffer buffer) throws IOException {
+        return getString(buffer.getInt());
+    }
+
+    final String getString(int offset) throws IOException {
         synchronized (strings) {
-            int offset = buffer.getInt();
             String t = texts.get(offset);
             if (t != null) {
                 return t;
@@ -239,6 +247,18 @@ final class BinaryFS extends FileSystem implements DataInput {
             return s;
         }
     }
+
+    /** Maps names of <code>count</code> records starting at <code>start</code>
+     * to the record indexes. Only the name offsets are resolved, the rest of
+     * each record stays in the buffer.
+     */
+    final Map<String,Integer> indexNames(int start, int count, int recordSize) throws IOException {
+        Map<String,Integer> map = new HashMap<String,Integer>(count * 4 / 3 + 1);
+        for (int i = 0; i < count; i++) {
+            map.put(getString(content.getInt(start + i * recordSize)), i);
+        }
+        return map;
+    }
     private static String toAbsoluteURL(String relURL) {
         if (relURL.startsWith("home@")) {
             return toJarURI(System.getProperty("netbeans.home")) + relURL.substring(5);
@@ -390,7 +410,13 @@ final class BinaryFS extends FileSystem implements DataInput {
 
         // fetched fields
         private boolean initialized = false;
-        private Map<String, AttrImpl> attrs = Collections.emptyMap();
+        /** attributes are read from the buffer on request */
+        private int attrCount;
+        private int attrOffset;
+        /** attribute names to record indexes, built on the first lookup */
+        private Map<String,Integer> attrIndex;
+        /** attributes read so far, by record index */
+        private AttrImpl[] attrCache;
 
         public BFSBase(String name, FileObject parent, int offset) {
             this.name = name;
@@ -407,9 +433,49 @@ final class BinaryFS extends FileSystem implements DataInput {
         }
 
         private final boolean attributeEquals(BFSBase base) {
+            return readAttrs().equals(base.readAttrs());
+        }
+
+        private Map<String, AttrImpl> readAttrs() {
             initialize();
-            base.initialize();
-            return attrs.equals(base.attrs);
+            Map<String, AttrImpl> attrs = new HashMap<String, AttrImpl>(attrCount * 4 / 3 + 1);
+            try {
+                for (int i = 0; i < attrCount; i++) {
+                    int pos = attrOffset + i * ATTR_SIZE;
+                    attrs.put(getString(content.getInt(pos)), new AttrImpl(content.get(pos + 4), getString(content.getInt(pos + 5))));
+                }
+            } catch (IOException ex) {
+                LOG.log(Level.WARNING, "Cannot read attributes of " + name, ex); // NOI18N
+            }
+            return attrs;
+        }
+
+        /** Finds an attribute, reading and caching only the requested record. */
+        private synchronized AttrImpl findAttr(String attrName) {
+            initialize();
+            if (attrCount == 0) {
+                return null;
+            }
+            try {
+                if (attrIndex == null) {
+                    attrIndex = indexNames(attrOffset, attrCount, ATTR_SIZE);
+                    attrCache = new AttrImpl[attrCount];
+                }
+                Integer i = attrIndex.get(attrName);
+                if (i == null) {
+                    return null;
+                }
+                AttrImpl attr = attrCache[i];
+                if (attr == null) {
+                    int pos = attrOffset + i * ATTR_SIZE;
+                    attr = new AttrImpl(content.get(pos + 4), getString(content.getInt(pos + 5)));
+                    attrCache[i] = attr;
+                }
+                return attr;
+            } catch (IOException ex) {
+                LOG.log(Level.WARNING, "Cannot read attribute " + attrName + " of " + name, ex); // NOI18N
+            }
+            return null;
         }
 
         @Override
@@ -498,14 +564,13 @@ final class BinaryFS extends FileSystem implements DataInput {
         /** Get the file attribute with the specified name. */
         @Override
         public Object getAttribute(String attrName) {
-            initialize();
-            AttrImpl attr = attrs.get(attrName);
+            AttrImpl attr = findAttr(attrName);
             if (attr == null && attrName.startsWith("class:")) { // NOI18N
-                attr = attrs.get(attrName.substring(6));
+                attr = findAttr(attrName.substring(6));
                 return attr == null ? null : attr.getType(this);
             }
             if (attr == null && attrName.startsWith("raw:")) { // NOI18N
-                attr = attrs.get(attrName.substring(4));
+                attr = findAttr(attrName.substring(4));
                 try {
                     if (attr != null && attr.index == 10) {
                         return attr.methodValue(attr.value, this, attrName).getMethod();
@@ -545,10 +610,18 @@ final class BinaryFS extends FileSystem implements DataInput {
         /** Get all file attribute names for this file. */
         public Enumeration<String> getAttributes() {
             initialize();
-            if (attrs == null) {
+            if (attrCount == 0) {
                 return Enumerations.empty();
             }
-            return Collections.enumeration(attrs.keySet());
+            List<String> names = new ArrayList<String>(attrCount);
+            try {
+                for (int i = 0; i < attrCount; i++) {
+                    names.add(getString(content.getInt(attrOffset + i * ATTR_SIZE)));
+                }
+            } catch (IOException ex) {
+                LOG.log(Level.WARNING, "Cannot read attributes of " + name, ex); // NOI18N
+            }
+            return Collections.enumeration(names);
         }
 
         /**
@@ -567,19 +640,11 @@ final class BinaryFS extends FileSystem implements DataInput {
                     }
                 }
 
-                int attrCount = sub.getInt();
-                if (attrCount > 0) attrs = new HashMap<String, AttrImpl>(attrCount*4/3+1);
-
-                for (int i=0; i< attrCount; i++) {  // do read attribute
-                    // attribute names are highly duplicated!
-                    String attrName = getString(sub);   // String attrName
-                    byte type = sub.get();          // byte attrType
-                    // values have high redundancy as well,
-                    // like "true", "JSeparator", paths to orig files from
-                    // shadow, ...
-                    String value = getString(sub);  // String attrValue
-                    attrs.put(attrName, new AttrImpl(type, value));
-                }
+                // attributes (String attrName, byte attrType, String attrValue)
+                // are only located here, see findAttr
+                attrCount = sub.getInt();
+                attrOffset = sub.position();
+                sub.position(attrOffset + attrCount * ATTR_SIZE);
 
                 doInitialize(sub);
             } catch (Exception e) {
@@ -997,7 +1062,12 @@ final class BinaryFS extends FileSystem implements DataInput {
     }
 
     private class BFSFolder extends BFSBase {
-        Map<String,BFSBase> childrenMap = Collections.<String,BFSBase>emptyMap();
+        private int childrenCount;
+        private int childrenOffset;
+        /** children created so far, in the order of the image */
+        private BFSBase[] children;
+        /** child names to reference indexes, built on the first lookup */
+        private Map<String,Integer> childIndex;
 
         public BFSFolder(String name, FileObject parent, int offset) {
             super(name, parent, offset);
@@ -1027,7 +1097,16 @@ final class BinaryFS extends FileSystem implements DataInput {
         /** Get all children of this folder (files and subfolders). */
         public FileObject[] getChildren() {
             initialize();
-                return childrenMap.values().toArray(NO_CHILDREN);
+            FileObject[] arr = new FileObject[childrenCount];
+            try {
+                for (int i = 0; i < childrenCount; i++) {
+                    arr[i] = child(i);
+                }
+            } catch (IOException ex) {
+                LOG.log(Level.WARNING, "Cannot read children of " + name, ex); // NOI18N
+                return NO_CHILDREN;
+            }
+            return arr;
         }
 
         /** Retrieve file or folder contained in this folder by name. */
@@ -1038,7 +1117,42 @@ final class BinaryFS extends FileSystem implements DataInput {
             }
             initialize();
             String fullName = ext == null ? name : name + "." + ext; // XXX - ??
-            return childrenMap.get(fullName);
+            try {
+                // only the matching child is created, its siblings stay in the buffer
+                return child(fullName);
+            } catch (IOException ex) {
+                LOG.log(Level.WARNING, "Cannot read children of " + this.name, ex); // NOI18N
+            }
+            return null;
+        }
+
+        private synchronized BFSBase child(String nameExt) throws IOException {
+            if (childrenCount == 0) {
+                return null;
+            }
+            if (childIndex == null) {
+                childIndex = indexNames(childrenOffset, childrenCount, CHILD_SIZE);
+            }
+            Integer i = childIndex.get(nameExt);
+            return i == null ? null : child(i);
+        }
+
+        private synchronized BFSBase child(int i) throws IOException {
+            if (children == null) {
+                children = new BFSBase[childrenCount];
+            }
+            BFSBase ch = children[i];
+            if (ch == null) {
+                int pos = childrenOffset + i * CHILD_SIZE;
+                String nm = getString(content.getInt(pos)); // String name
+                byte isFolder = content.get(pos + 4);       // boolean isFolder
+                int off = content.getInt(pos + 5);          // int contentRef
+                ch = isFolder == 0 ?
+                    new BFSFile(nm, this, off) :
+                    new BFSFolder(nm, this, off);
+                children[i] = ch;
+            }
+            return ch;
         }
 
         /** A method called to finish the initialization in the subclasses.
@@ -1048,24 +1162,13 @@ final class BinaryFS extends FileSystem implements DataInput {
          *   int fileCount
          * File[fileCount] references
          * File/FolderContent[fileCount] contents
+         *
+         * Only the position of the references is remembered, children
+         * are created on request.
          */
         protected void doInitialize(ByteBuffer sub) throws Exception {
-            int files = sub.getInt();
-            if (files > 0) {
-                HashMap<String, BFSBase> map = new HashMap<String, BFSBase>(files * 4 / 3 + 1);
-                for (int i=0; i<files; i++) { //read file desc:
-                    String nm = getString(sub);   // String name
-                    byte isFolder = sub.get();      // boolean isFolder
-                    int off = sub.getInt();          // int contentRef
-                    map.put(nm, isFolder == 0 ?
-                        new BFSFile(nm, this, off) :
-                        new BFSFolder(nm, this, off));
-                }
-                childrenMap = map;
-                if (LayerCacheManager.err.isLoggable(Level.FINEST)) {
-                    LayerCacheManager.err.log(Level.FINEST, "  children for " + getPath() + " are: " + childrenMap.keySet());
-                }
-            }
+            childrenCount = sub.getInt();
+            childrenOffset = sub.position();
         }
 
         // equals compares contents recursively.
@@ -1073,8 +1176,15 @@ final class BinaryFS extends FileSystem implements DataInput {
         protected boolean specificEquals(BFSBase _f) {
             if (!(_f instanceof BFSFolder)) return false;
             BFSFolder f = (BFSFolder)_f;
-            initialize();
-            return childrenMap.equals(f.childrenMap);
+            return childrenMap().equals(f.childrenMap());
+        }
+
+        private Map<String,FileObject> childrenMap() {
+            Map<String,FileObject> map = new HashMap<String,FileObject>();
+            for (FileObject ch : getChildren()) {
+                map.put(ch.getNameExt(), ch);
+            }
+            return map;
         }
 
     }
@@ -20,12 +20,17 @@
 package org.netbeans.core.startup.layers;
 
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.net.URL;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.logging.Level;
 import org.openide.filesystems.FileAttributeEvent;
@@ -36,6 +41,7 @@ import org.openide.filesystems.FileRenameEvent;
 import org.openide.filesystems.FileSystem;
 import org.openide.filesystems.FileUtil;
 import org.openide.filesystems.MultiFileSystem;
+import org.openide.util.Utilities;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 /** Test layer cache manager.
@@ -107,6 +113,51 @@ implements CacheManagerTestBaseHid.ManagerFactory {
         assertEquals(Boolean.TRUE, fs.getRoot().getAttribute("myAttr"));
     }
     
+    public void testLargeFolderWithAttributes() throws Exception {
+        final int count = 2000;
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version='1.0' encoding='UTF-8'?>\n");
+        sb.append("<!DOCTYPE filesystem PUBLIC '-//NetBeans//DTD Filesystem 1.2//EN' 'http://www.netbeans.org/dtds/filesystem-1_2.dtd'>\n");
+        sb.append("<filesystem><folder name='Big'>\n");
+        for (int i = 0; i < count; i++) {
+            sb.append("<file name='item").append(i).append(".instance'>");
+            sb.append("<attr name='position' intvalue='").append(count - i).append("'/>");
+            sb.append("<attr name='displayName' stringvalue='Item ").append(i).append("'/>");
+            sb.append("</file>\n");
+        }
+        sb.append("<file name='\u017elu\u0165ou\u010dk\u00fd'><attr name='k\u016f\u0148' boolvalue='true'/></file>\n");
+        sb.append("</folder></filesystem>\n");
+        File layer = new File(getWorkDir(), "big-layer.xml");
+        Writer w = new OutputStreamWriter(new FileOutputStream(layer), "UTF-8");
+        try {
+            w.write(sb.toString());
+        } finally {
+            w.close();
+        }
+        FileSystem fs = store(new BinaryCacheManager(), Collections.singletonList(Utilities.toURI(layer).toURL()));
+        FileObject big = fs.findResource("Big");
+        assertNotNull(big);
+        assertNull(big.getFileObject("item" + count + ".instance"));
+        for (int i = count - 1; i >= 0; i--) {
+            FileObject item = big.getFileObject("item" + i + ".instance");
+            assertNotNull("item" + i, item);
+            assertSame("same object on repeated lookup", item, big.getFileObject("item" + i, "instance"));
+            assertEquals(count - i, item.getAttribute("position"));
+            assertEquals(count - i, item.getAttribute("position"));
+            assertEquals("Item " + i, item.getAttribute("displayName"));
+            assertEquals(Integer.class, item.getAttribute("class:position"));
+            assertNull(item.getAttribute("missing"));
+        }
+        FileObject nonAscii = big.getFileObject("\u017elu\u0165ou\u010dk\u00fd");
+        assertNotNull(nonAscii);
+        assertEquals(Boolean.TRUE, nonAscii.getAttribute("k\u016f\u0148"));
+        FileObject[] children = big.getChildren();
+        assertEquals(count + 1, children.length);
+        List<FileObject> sorted = FileUtil.getOrder(Arrays.asList(children), false);
+        assertEquals(big.getFileObject("item" + (count - 1) + ".instance"), sorted.get(0));
+        assertEquals(big.getFileObject("item0.instance"), sorted.get(count - 1));
+    }
+
     public void testFastReplacement() throws Exception {
         clearWorkDir();
         LayerCacheManager m = new BinaryCacheManager();
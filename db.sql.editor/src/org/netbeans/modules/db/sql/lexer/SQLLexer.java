@@ -115,13 +115,13 @@ public class SQLLexer implements Lexer<SQLTokenId> {
                             break;
                         case '(':
                             state = State.INIT;
-                            return factory.createToken(SQLTokenId.LPAREN);
+                            return token(SQLTokenId.LPAREN, "("); // NOI18N
                         case ')':
                             state = State.INIT;
-                            return factory.createToken(SQLTokenId.RPAREN);
+                            return token(SQLTokenId.RPAREN, ")"); // NOI18N
                         case ',':
                             state = State.INIT;
-                            return factory.createToken(SQLTokenId.COMMA);
+                            return token(SQLTokenId.COMMA, ","); // NOI18N
                         case '-':
                             state = State.ISA_MINUS;
                             break;
@@ -158,7 +158,7 @@ public class SQLLexer implements Lexer<SQLTokenId> {
                     if (!Character.isWhitespace(actChar)) {
                         state = State.INIT;
                         input.backup(1);
-                        return factory.createToken(SQLTokenId.WHITESPACE);
+                        return whitespaceToken();
                     }
                     break;
 
@@ -342,7 +342,7 @@ public class SQLLexer implements Lexer<SQLTokenId> {
                     } else { // only single dot
                         state = State.INIT;
                         input.backup(1);
-                        return factory.createToken(SQLTokenId.DOT);
+                        return token(SQLTokenId.DOT, "."); // NOI18N
                     }
                     break;
 
@@ -457,6 +457,28 @@ public class SQLLexer implements Lexer<SQLTokenId> {
         return isStartStringQuoteChar(start) && end == getMatchingQuote(start);
     }
 
+    /**
+     * Create a token with a fixed text. Such tokens are very frequent in large
+     * (e.g. generated) SQL files so they are shared as flyweight tokens.
+     */
+    private Token<SQLTokenId> token(SQLTokenId id, String fixedText) {
+        return (input.readLength() == fixedText.length())
+                ? factory.getFlyweightToken(id, fixedText)
+                : factory.createToken(id);
+    }
+
+    private Token<SQLTokenId> whitespaceToken() {
+        if (input.readLength() == 1) {
+            switch (input.readText().charAt(0)) {
+                case ' ':
+                    return factory.getFlyweightToken(SQLTokenId.WHITESPACE, " "); // NOI18N
+                case '\n':
+                    return factory.getFlyweightToken(SQLTokenId.WHITESPACE, "\n"); // NOI18N
+            }
+        }
+        return factory.createToken(SQLTokenId.WHITESPACE);
+    }
+
     private static SQLTokenId testKeyword(CharSequence value) {
         if (SQLKeywords.isSQL99Keyword(value.toString().toUpperCase(), true)) {
             return SQLTokenId.KEYWORD;
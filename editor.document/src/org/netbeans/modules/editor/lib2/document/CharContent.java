@@ -100,9 +100,10 @@ final class CharContent implements CharSequence {
         if (textLength > gapLength) {
             // Add extra 1/8 of buffer length. This is optimized for inserting initial document content at once
             // which is done so by ReadWriteUtils.read() etc.
-            reallocate((buffer.length >>> 3) + textLength);
-        }
-        if (offset != gapStart) {
+            // Place the gap at offset during reallocation so that each char gets copied just once
+            // (important for large pastes far from the current gap in large documents).
+            reallocate(offset, (buffer.length >>> 3) + textLength);
+        } else if (offset != gapStart) {
             moveGap(offset);
         }
     }
@@ -167,18 +168,14 @@ final class CharContent implements CharSequence {
 
     char[] getChars(int offset, int length) {
         char[] ret = new char[length];
-        int belowGap = gapStart - offset;
-        System.arraycopy(buffer, offset, ret, 0, belowGap);
-        System.arraycopy(buffer, gapStart + gapLength,
-            ret, belowGap, length - belowGap);
+        copyChars(offset, offset + length, ret, 0);
         return ret;
     }
 
     void compact() {
         if (gapLength > 0) { // Fully compact
-            reallocate(0);
             // Make whole area continuous to allow efficient getString()
-            gapStart = buffer.length;
+            reallocate(length(), 0);
         }
     }
     
@@ -202,17 +199,33 @@ final class CharContent implements CharSequence {
         gapStart = index;
     }
     
-    private void reallocate(int newGapLength) {
-        int gapEnd = gapStart + gapLength;
-        int aboveGapLength = (buffer.length - gapEnd);
-        int newLength = gapStart + aboveGapLength + newGapLength;
-        char[] newBuffer = new char[newLength];
-        System.arraycopy(buffer, 0, newBuffer, 0, gapStart);
-        System.arraycopy(buffer, gapEnd, newBuffer, newLength - aboveGapLength, aboveGapLength);
-        // gapStart is same
+    /**
+     * Reallocate the buffer with a gap of the given length placed at the given offset.
+     */
+    private void reallocate(int newGapStart, int newGapLength) {
+        int length = length();
+        char[] newBuffer = new char[length + newGapLength];
+        copyChars(0, newGapStart, newBuffer, 0);
+        copyChars(newGapStart, length, newBuffer, newGapStart + newGapLength);
+        gapStart = newGapStart;
         gapLength = newGapLength;
         buffer = newBuffer;
     }
+
+    /**
+     * Copy chars in the given area (in terms of offsets without the gap) into the given array.
+     */
+    private void copyChars(int startOffset, int endOffset, char[] dest, int destIndex) {
+        if (startOffset < gapStart) {
+            int belowGapEnd = Math.min(endOffset, gapStart);
+            System.arraycopy(buffer, startOffset, dest, destIndex, belowGapEnd - startOffset);
+            destIndex += belowGapEnd - startOffset;
+            startOffset = belowGapEnd;
+        }
+        if (startOffset < endOffset) {
+            System.arraycopy(buffer, startOffset + gapLength, dest, destIndex, endOffset - startOffset);
+        }
+    }
     
     String consistencyError() {
         String err = null;
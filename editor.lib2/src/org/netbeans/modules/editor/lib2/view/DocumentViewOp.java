@@ -1366,9 +1366,9 @@ public final class DocumentViewOp
     TextLayout createTextLayout(String text, Font font) {
         checkSettingsInfo();
         if (fontRenderContext != null && font != null) {
-            ViewStats.incrementTextLayoutCreated(text.length());
             FontInfo fontInfo = getFontInfo(font);
-            TextLayout textLayout = new TextLayout(text, fontInfo.renderFont, fontRenderContext);
+            TextLayout textLayout = TextLayoutSharedCache.get().findOrCreate(
+                    text, fontInfo.renderFont, fontRenderContext);
             if (fontInfo.updateRowHeight(textLayout, rowHeightCorrection)) {
                 updateRowHeight(fontInfo, false);
                 LOG.fine("RowHeight Updated -> release children");
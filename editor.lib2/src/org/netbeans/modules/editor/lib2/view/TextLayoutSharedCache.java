@@ -0,0 +1,186 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.netbeans.modules.editor.lib2.view;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextLayout;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide cache of text layouts shared by all document views.
+ * <br>
+ * Text layouts are immutable so identical text runs rendered with the same font
+ * and font render context (imports, license headers, repeated log lines etc.)
+ * may share a single instance across split panes, clones and editor tabs.
+ * <br>
+ * The cache is bounded by an estimated memory footprint of the cached layouts
+ * and the least recently used entries get evicted first.
+ * <br>
+ * This class is multi-thread safe.
+ */
+
+final class TextLayoutSharedCache {
+
+    /**
+     * Maximum estimated size of all cached text layouts in kilobytes.
+     */
+    private static final int DEFAULT_MAX_SIZE_KB = Integer.getInteger(
+            "org.netbeans.editor.shared.text.layout.cache.kb", 4096); // NOI18N
+
+    /**
+     * Longer text runs are unlikely to be repeated and they would evict many short ones.
+     */
+    static final int MAX_CACHED_TEXT_LENGTH = 256;
+
+    /**
+     * Estimated fixed size of a text layout with its key and map entry.
+     */
+    private static final int ENTRY_OVERHEAD = 512;
+
+    /**
+     * Estimated size of glyph information held by a text layout for a single char.
+     */
+    private static final int BYTES_PER_CHAR = 48;
+
+    private static final TextLayoutSharedCache INSTANCE = new TextLayoutSharedCache(DEFAULT_MAX_SIZE_KB * 1024L);
+
+    static TextLayoutSharedCache get() {
+        return INSTANCE;
+    }
+
+    private final Map<Key, TextLayout> key2textLayout = new LinkedHashMap<Key, TextLayout>(64, 0.75f, true);
+
+    private final long maxSize;
+
+    private long size;
+
+    TextLayoutSharedCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Return a text layout for the given text either from the cache or a newly created one.
+     *
+     * @param text non-null text of the layout.
+     * @param font non-null font to be used for rendering.
+     * @param frc non-null font render context.
+     * @return non-null text layout.
+     */
+    TextLayout findOrCreate(String text, Font font, FontRenderContext frc) {
+        int length = text.length();
+        Key key = null;
+        if (length <= MAX_CACHED_TEXT_LENGTH) {
+            key = new Key(text, font, frc);
+            TextLayout textLayout;
+            synchronized (this) {
+                textLayout = key2textLayout.get(key);
+            }
+            if (textLayout != null) {
+                ViewStats.incrementTextLayoutSharedHit(length);
+                return textLayout;
+            }
+            ViewStats.incrementTextLayoutSharedMiss();
+        }
+        ViewStats.incrementTextLayoutCreated(length);
+        // Create outside of the lock; a concurrent creation of the same layout is harmless
+        TextLayout textLayout = new TextLayout(text, font, frc);
+        if (key != null) {
+            synchronized (this) {
+                if (key2textLayout.put(key, textLayout) == null) {
+                    size += entrySize(length);
+                    evict();
+                }
+            }
+        }
+        return textLayout;
+    }
+
+    synchronized int entryCount() {
+        return key2textLayout.size();
+    }
+
+    synchronized long size() {
+        return size;
+    }
+
+    synchronized void clear() {
+        key2textLayout.clear();
+        size = 0L;
+    }
+
+    private void evict() {
+        Iterator<Key> it = key2textLayout.keySet().iterator();
+        while (size > maxSize && it.hasNext()) {
+            Key lruKey = it.next();
+            it.remove();
+            size -= entrySize(lruKey.text.length());
+        }
+    }
+
+    private static long entrySize(int length) {
+        return ENTRY_OVERHEAD + (long) length * BYTES_PER_CHAR;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "entryCount=" + key2textLayout.size() + ", size=" + size + ", maxSize=" + maxSize; // NOI18N
+    }
+
+    private static final class Key {
+
+        final String text;
+
+        final Font font;
+
+        final FontRenderContext frc;
+
+        private final int hashCode;
+
+        Key(String text, Font font, FontRenderContext frc) {
+            this.text = text;
+            this.font = font;
+            this.frc = frc;
+            this.hashCode = (text.hashCode() * 31 + font.hashCode()) * 31 + frc.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) obj;
+            return hashCode == key.hashCode && text.equals(key.text) &&
+                    font.equals(key.font) && frc.equals(key.frc);
+        }
+
+    }
+
+}
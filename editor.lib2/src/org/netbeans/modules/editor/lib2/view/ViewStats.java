@@ -45,6 +45,12 @@ public final class ViewStats {
     
     private static int textLayoutReusedCharCount;
     
+    private static int textLayoutSharedHitCount;
+
+    private static int textLayoutSharedHitCharCount;
+
+    private static int textLayoutSharedMissCount;
+
     private static int staleViewCreationCount;
 
     private ViewStats() { // No instances
@@ -74,6 +80,30 @@ public final class ViewStats {
         }
     }
 
+    public static void incrementTextLayoutSharedHit(int charCount) {
+        textLayoutSharedHitCount++;
+        textLayoutSharedHitCharCount += charCount;
+        if (LOG.isLoggable(Level.FINE)) {
+            if (LOG.isLoggable(Level.FINEST) ||
+                    (textLayoutSharedHitCount % TEXT_LAYOUT_CREATED_OR_REUSED_THRESHOLD) == 0)
+            {
+                LOG.fine(stats());
+            }
+        }
+    }
+
+    public static void incrementTextLayoutSharedMiss() {
+        textLayoutSharedMissCount++;
+    }
+
+    /**
+     * @return hit ratio (between 0 and 1) of the text layout cache shared among document views.
+     */
+    public static double textLayoutSharedHitRatio() {
+        int total = textLayoutSharedHitCount + textLayoutSharedMissCount;
+        return (total != 0) ? (double) textLayoutSharedHitCount / total : 0d;
+    }
+
     public static void incrementStaleViewCreations() {
         staleViewCreationCount++;;
         if (LOG.isLoggable(Level.FINE)) {
@@ -91,6 +121,10 @@ public final class ViewStats {
                 "\tchar-count: " + textLayoutCreatedCharCount + // NOI18N
                 "\n  Reused:\tcount: " + textLayoutReusedCount + // NOI18N
                 "\tchar-count: " + textLayoutReusedCharCount + // NOI18N
+                "\n  Shared:\thits: " + textLayoutSharedHitCount + // NOI18N
+                "\tchar-count: " + textLayoutSharedHitCharCount + // NOI18N
+                "\tmisses: " + textLayoutSharedMissCount + // NOI18N
+                "\thit-ratio: " + String.format("%.1f%%", textLayoutSharedHitRatio() * 100d) + // NOI18N
                 "\nStaleCreations: " + staleViewCreationCount + // NOI18N
                 "\n"; // NOI18N
     }
@@ -0,0 +1,69 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.netbeans.modules.editor.lib2.view;
+
+import java.awt.Font;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextLayout;
+import org.netbeans.junit.NbTestCase;
+
+public class TextLayoutSharedCacheTest extends NbTestCase {
+
+    private static final FontRenderContext FRC = new FontRenderContext(null, false, false);
+
+    public TextLayoutSharedCacheTest(String name) {
+        super(name);
+    }
+
+    public void testSharing() throws Exception {
+        TextLayoutSharedCache cache = new TextLayoutSharedCache(1024 * 1024);
+        Font font = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+        TextLayout tl = cache.findOrCreate("import java.util.List;", font, FRC);
+        assertSame(tl, cache.findOrCreate("import java.util.List;", font, FRC));
+        assertNotSame(tl, cache.findOrCreate("import java.util.Map;", font, FRC));
+        assertNotSame(tl, cache.findOrCreate("import java.util.List;", font.deriveFont(Font.BOLD), FRC));
+        assertEquals(3, cache.entryCount());
+    }
+
+    public void testLongTextNotCached() throws Exception {
+        TextLayoutSharedCache cache = new TextLayoutSharedCache(1024 * 1024);
+        Font font = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i <= TextLayoutSharedCache.MAX_CACHED_TEXT_LENGTH; i++) {
+            sb.append('x');
+        }
+        String text = sb.toString();
+        assertNotSame(cache.findOrCreate(text, font, FRC), cache.findOrCreate(text, font, FRC));
+        assertEquals(0, cache.entryCount());
+    }
+
+    public void testEviction() throws Exception {
+        TextLayoutSharedCache cache = new TextLayoutSharedCache(2048);
+        Font font = new Font(Font.MONOSPACED, Font.PLAIN, 12);
+        TextLayout first = cache.findOrCreate("line0", font, FRC);
+        for (int i = 1; i < 10; i++) {
+            cache.findOrCreate("line" + i, font, FRC);
+            assertTrue(cache.toString(), cache.size() <= 2048);
+        }
+        assertTrue(cache.entryCount() < 10);
+        assertNotSame(first, cache.findOrCreate("line0", font, FRC));
+    }
+
+}
@@ -802,7 +802,7 @@ public class JavacParser extends Parser {
         final boolean multiSource = flags.contains(ConfigFlags.MULTI_SOURCE);
         final List<String> options = new ArrayList<>();
         String lintOptions = CompilerSettings.getCommandLine(cpInfo);
-        com.sun.tools.javac.code.Source validatedSourceLevel = validateSourceLevel(
+        com.sun.tools.javac.code.Source validatedSourceLevel = SourceLevelCache.validateSourceLevel(
                 sourceLevel,
                 cpInfo,
                 flags.contains(ConfigFlags.MODULE_INFO));
@@ -935,6 +935,29 @@ public class JavacParser extends Parser {
                 isModuleInfo);
     }
 
+    /**
+     * Validates the source level against the boot and compile paths only,
+     * ignoring classes provided as sources. Downgrades are not reported.
+     * The source path can only raise the result, so when this returns
+     * the requested level the full validation returns it as well.
+     */
+    @NonNull
+    static com.sun.tools.javac.code.Source validateSourceLevelOnBinaries(
+            @NullAllowed String sourceLevel,
+            @NonNull final ClasspathInfo cpInfo,
+            final boolean isModuleInfo) {
+        return validateSourceLevel(
+                sourceLevel,
+                cpInfo.getClassPath(PathKind.BOOT),
+                cpInfo.getClassPath(PathKind.COMPILE),
+                ClassPath.EMPTY,
+                cpInfo.getClassPath(PathKind.MODULE_BOOT),
+                cpInfo.getClassPath(PathKind.MODULE_COMPILE),
+                cpInfo.getClassPath(PathKind.MODULE_CLASS),
+                isModuleInfo,
+                false);
+    }
+
     @NonNull
     public static com.sun.tools.javac.code.Source validateSourceLevel(
             @NullAllowed String sourceLevel,
@@ -945,6 +968,29 @@ public class JavacParser extends Parser {
             @NullAllowed final ClassPath moduleCompile,
             @NullAllowed final ClassPath moduleAllUnnamed,
             final boolean isModuleInfo) {
+        return validateSourceLevel(
+                sourceLevel,
+                bootClassPath,
+                classPath,
+                srcClassPath,
+                moduleBoot,
+                moduleCompile,
+                moduleAllUnnamed,
+                isModuleInfo,
+                true);
+    }
+
+    @NonNull
+    private static com.sun.tools.javac.code.Source validateSourceLevel(
+            @NullAllowed String sourceLevel,
+            @NullAllowed final ClassPath bootClassPath,
+            @NullAllowed final ClassPath classPath,
+            @NullAllowed final ClassPath srcClassPath,
+            @NullAllowed final ClassPath moduleBoot,
+            @NullAllowed final ClassPath moduleCompile,
+            @NullAllowed final ClassPath moduleAllUnnamed,
+            final boolean isModuleInfo,
+            final boolean reportDowngrade) {
         com.sun.tools.javac.code.Source[] sources = com.sun.tools.javac.code.Source.values();
         Level warnLevel;
         if (sourceLevel == null) {
@@ -962,6 +1008,9 @@ public class JavacParser extends Parser {
             }
             warnLevel = Level.WARNING;
         }
+        if (!reportDowngrade) {
+            warnLevel = Level.FINEST;
+        }
         for (com.sun.tools.javac.code.Source source : sources) {
             if (source == com.sun.tools.javac.code.Source.lookup(sourceLevel)) {
                 if (DISABLE_SOURCE_LEVEL_DOWNGRADE || isModuleInfo) {
@@ -0,0 +1,186 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.netbeans.modules.java.source.parsing;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import org.netbeans.api.annotations.common.CheckForNull;
+import org.netbeans.api.annotations.common.NonNull;
+import org.netbeans.api.annotations.common.NullAllowed;
+import org.netbeans.api.java.source.ClasspathInfo;
+import org.openide.util.Pair;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Cache of source levels validated against the {@link ClasspathInfo}.
+ * The validation looks up several classes on the boot, compile and source paths,
+ * which used to be paid by each created javac task. Only the part of the check
+ * done on the boot and compile paths is cached, the content of the source roots
+ * may change without any event from the {@link ClasspathInfo}. When the
+ * {@link ClasspathInfo} changes the already requested source levels are
+ * validated again in background, so the first task after the classpath change
+ * finds them ready.
+ */
+final class SourceLevelCache {
+
+    private static final Logger LOG = Logger.getLogger(SourceLevelCache.class.getName());
+    private static final RequestProcessor RP = new RequestProcessor(SourceLevelCache.class.getName(), 1, false, false);
+    //@GuardedBy("SourceLevelCache.class")
+    private static final Map<ClasspathInfo,Levels> cache = new WeakHashMap<>();
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong missTime = new AtomicLong();
+
+    private SourceLevelCache() {
+        throw new IllegalStateException("No instance allowed"); //NOI18N
+    }
+
+    @NonNull
+    static com.sun.tools.javac.code.Source validateSourceLevel(
+            @NullAllowed final String sourceLevel,
+            @NonNull final ClasspathInfo cpInfo,
+            final boolean isModuleInfo) {
+        if (JavacParser.DISABLE_SOURCE_LEVEL_DOWNGRADE) {
+            return JavacParser.validateSourceLevel(sourceLevel, cpInfo, isModuleInfo);
+        }
+        final Pair<String,Boolean> key = Pair.of(sourceLevel, isModuleInfo);
+        final Levels levels = getLevels(cpInfo);
+        com.sun.tools.javac.code.Source res = levels.get(key);
+        if (res != null) {
+            hits.incrementAndGet();
+        } else {
+            final int generation = levels.generation();
+            final long st = System.nanoTime();
+            res = JavacParser.validateSourceLevelOnBinaries(sourceLevel, cpInfo, isModuleInfo);
+            final long time = System.nanoTime() - st;
+            levels.put(key, res, generation);
+            misses.incrementAndGet();
+            missTime.addAndGet(time);
+            if (LOG.isLoggable(Level.FINE)) {
+                LOG.log(
+                    Level.FINE,
+                    "Source level validated in {0}ms, hits: {1}, misses: {2}, total validation time: {3}ms",  //NOI18N
+                    new Object[] {
+                        time / 1_000_000,
+                        hits.get(),
+                        misses.get(),
+                        missTime.get() / 1_000_000
+                    });
+            }
+        }
+        final com.sun.tools.javac.code.Source requested = requestedLevel(sourceLevel, isModuleInfo);
+        if (requested == null || res.compareTo(requested) >= 0) {
+            return res;
+        }
+        //Some classes are missing on the boot and compile paths,
+        //the result depends on the current content of the source path.
+        return JavacParser.validateSourceLevel(sourceLevel, cpInfo, isModuleInfo);
+    }
+
+    /**
+     * Returns the level the validation keeps when no class is missing,
+     * or null when the level is not checked against the class path at all.
+     */
+    @CheckForNull
+    private static com.sun.tools.javac.code.Source requestedLevel(
+            @NullAllowed final String sourceLevel,
+            final boolean isModuleInfo) {
+        if (isModuleInfo) {
+            return null;
+        }
+        if (sourceLevel == null) {
+            final com.sun.tools.javac.code.Source[] sources = com.sun.tools.javac.code.Source.values();
+            return sources[sources.length-1];
+        }
+        return com.sun.tools.javac.code.Source.lookup(sourceLevel);
+    }
+
+    @NonNull
+    private static synchronized Levels getLevels(@NonNull final ClasspathInfo cpInfo) {
+        Levels levels = cache.get(cpInfo);
+        if (levels == null) {
+            levels = new Levels();
+            cpInfo.addChangeListener(levels);
+            cache.put(cpInfo, levels);
+        }
+        return levels;
+    }
+
+    private static final class Levels implements ChangeListener {
+
+        private final Map<Pair<String,Boolean>,com.sun.tools.javac.code.Source> levels = new ConcurrentHashMap<>();
+        private final AtomicInteger generation = new AtomicInteger();
+
+        com.sun.tools.javac.code.Source get(@NonNull final Pair<String,Boolean> key) {
+            return levels.get(key);
+        }
+
+        int generation() {
+            return generation.get();
+        }
+
+        synchronized void put(
+                @NonNull final Pair<String,Boolean> key,
+                @NonNull final com.sun.tools.javac.code.Source level,
+                final int expectedGeneration) {
+            if (generation.get() == expectedGeneration) {
+                levels.put(key, level);
+            }
+        }
+
+        @Override
+        public void stateChanged(@NonNull final ChangeEvent e) {
+            final int newGeneration;
+            final Collection<Pair<String,Boolean>> keys;
+            synchronized (this) {
+                newGeneration = generation.incrementAndGet();
+                keys = new ArrayList<>(levels.keySet());
+                levels.clear();
+            }
+            final Object source = e.getSource();
+            if (!keys.isEmpty() && source instanceof ClasspathInfo) {
+                final ClasspathInfo cpInfo = (ClasspathInfo) source;
+                RP.execute(() -> {
+                    for (Pair<String,Boolean> key : keys) {
+                        if (generation.get() != newGeneration) {
+                            return;
+                        }
+                        put(
+                            key,
+                            JavacParser.validateSourceLevelOnBinaries(key.first(), cpInfo, key.second()),
+                            newGeneration);
+                    }
+                    LOG.log(
+                        Level.FINE,
+                        "Revalidated {0} source level(s) after classpath change",   //NOI18N
+                        keys.size());
+                });
+            }
+        }
+    }
+}
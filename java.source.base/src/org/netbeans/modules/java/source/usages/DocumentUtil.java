@@ -73,7 +73,7 @@ public class DocumentUtil {
     static final String FIELD_CASE_INSENSITIVE_FEATURE_IDENTS = "cifids"; //NOI18N
     private static final String FIELD_BINARY_NAME = "binaryName";         //NOI18N
     private static final String FIELD_SOURCE = "source";                //NOI18N
-    private static final String FIELD_REFERENCES = "references";        //NOI18N
+    static final String FIELD_REFERENCES = "references";                //NOI18N
 
     private static final char NO = '-';                                 //NOI18N
     private static final char YES = '+';                                //NOI18N
@@ -317,7 +317,7 @@ public class DocumentUtil {
         char[] yes) {
         assert className != null;
         assert usageTypes != null;
-        StringBuilder builder = new StringBuilder ();
+        StringBuilder builder = new StringBuilder (className.length() + SIZE * yes.length);
         builder.append(className);
         for (ClassIndexImpl.UsageType ut : ClassIndexImpl.UsageType.values()) {
             if (usageTypes.contains(ut)) {
@@ -329,6 +329,40 @@ public class DocumentUtil {
         return builder;
     }
 
+    /**
+     * Returns the length of the class name encoded in the raw usage.
+     * @param rawUsage the encoded usage
+     * @return the class name length, negative for malformed usage
+     */
+    static int usageNameLength (@NonNull final String rawUsage) {
+        return rawUsage.length() - SIZE;
+    }
+
+    /**
+     * Tests the usage types of encoded usage without decoding it.
+     * @param rawUsage the encoded usage
+     * @param usageTypes the usage types to test
+     * @param all if true all the usage types are required, otherwise any of them
+     * @return true if the usage has the required usage types
+     */
+    static boolean hasUsageTypes (
+            @NonNull final String rawUsage,
+            @NonNull final Set<? extends ClassIndexImpl.UsageType> usageTypes,
+            final boolean all) {
+        final int index = usageNameLength(rawUsage);
+        assert index >= 0;
+        for (ClassIndexImpl.UsageType ut : usageTypes) {
+            if (rawUsage.charAt(index + ut.ordinal()) == YES) {
+                if (!all) {
+                    return true;
+                }
+            } else if (all) {
+                return false;
+            }
+        }
+        return all;
+    }
+
     static String decodeUsage (final String rawUsage, final Set<ClassIndexImpl.UsageType> usageTypes) {
         assert rawUsage != null;
         assert usageTypes != null;
@@ -337,10 +371,9 @@ public class DocumentUtil {
         assert rawUsageLen>SIZE;
         final int index = rawUsageLen - SIZE;
         final String className = rawUsage.substring(0,index);
-        final String map = rawUsage.substring (index);
         final ClassIndexImpl.UsageType[] values = ClassIndexImpl.UsageType.values();
         for (int i=0; i< values.length; i++) {
-            if (map.charAt(i) == YES) {
+            if (rawUsage.charAt(index + i) == YES) {
                 usageTypes.add (values[i]);
             }
         }
@@ -20,32 +20,29 @@
 package org.netbeans.modules.java.source.usages;
 
 import java.io.IOException;
-import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
-import java.util.regex.Pattern;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.index.TermDocs;
 import org.apache.lucene.index.TermEnum;
 import org.apache.lucene.search.BooleanClause.Occur;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.DocIdSet;
 import org.apache.lucene.search.Filter;
 import org.apache.lucene.search.FilteredQuery;
 import org.apache.lucene.search.FilteredTermEnum;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
-import org.apache.lucene.search.WildcardQuery;
 import org.apache.lucene.util.OpenBitSet;
 import org.netbeans.api.annotations.common.CheckForNull;
 import org.netbeans.api.annotations.common.NonNull;
 import org.netbeans.api.annotations.common.NullAllowed;
 import org.netbeans.api.java.source.ClassIndex.SearchScopeType;
 import org.netbeans.modules.java.source.usages.ClassIndexImpl.UsageType;
-import org.netbeans.modules.parsing.lucene.support.Queries;
 import org.netbeans.modules.parsing.lucene.support.StoppableConvertor;
 import org.openide.util.Pair;
 import org.openide.util.Parameters;
@@ -65,26 +62,11 @@ class QueryUtil {
         Parameters.notNull("resourceName", resourceName);
         Parameters.notNull("mask", mask);
         Parameters.notNull("operator", operator);
-        if (operator == Occur.SHOULD) {
-            final BooleanQuery query = new BooleanQuery ();
-            for (ClassIndexImpl.UsageType ut : mask) {
-                final Query subQuery = new WildcardQuery(
-                    DocumentUtil.referencesTerm (
-                        resourceName,
-                        EnumSet.of(ut),
-                        false));
-                query.add(subQuery, operator);
-            }
-            return query;
-        } else if (operator == Occur.MUST) {
-            return new WildcardQuery(
-                DocumentUtil.referencesTerm (
-                    resourceName,
-                    mask,
-                    false));
-        } else {
-            throw new IllegalArgumentException();
-        }
+        return new ConstantScoreQuery(new UsagesFilter(
+                resourceName,
+                false,
+                mask,
+                requiresAll(operator)));
     }
 
     @NonNull
@@ -94,26 +76,13 @@ class QueryUtil {
             @NonNull Occur operator) {
         Parameters.notNull("packageName", packageName); //NOI18N
         Parameters.notNull("mask", mask); //NOI18N
-        final String pattern = Pattern.quote(packageName) + "\\.[^\\.]+";   //NOI18N
-        if (operator == Occur.SHOULD) {
-            final BooleanQuery query = new BooleanQuery ();
-            for (ClassIndexImpl.UsageType ut : mask) {
-                final Term t = DocumentUtil.referencesTerm (
-                        pattern,
-                        EnumSet.of(ut),
-                        true);
-                query.add(Queries.createQuery(t.field(), t.field(), t.text(), Queries.QueryKind.REGEXP), operator);
-            }
-            return query;
-        } else if (operator == Occur.MUST) {
-            final Term t = DocumentUtil.referencesTerm (
-                    pattern,
-                    mask,
-                    true);
-            return Queries.createQuery(t.field(), t.field(), t.text(), Queries.QueryKind.REGEXP);
-        } else {
-            throw new IllegalArgumentException();
-        }
+        return new ConstantScoreQuery(new UsagesFilter(
+                packageName.isEmpty() ?
+                    packageName :   //Default package members have no package separator
+                    packageName + BinaryName.PKG_SEPARATOR,
+                true,
+                mask,
+                requiresAll(operator)));
     }
 
     @CheckForNull
@@ -167,6 +136,16 @@ class QueryUtil {
     }
 
     // <editor-fold defaultstate="collapsed" desc="Private implementation">
+
+    private static boolean requiresAll(@NonNull final Occur operator) {
+        if (operator == Occur.SHOULD) {
+            return false;
+        } else if (operator == Occur.MUST) {
+            return true;
+        } else {
+            throw new IllegalArgumentException();
+        }
+    }
                             
                                     
     private static final class PackageFilter implements StoppableConvertor<Term, String> {
@@ -204,6 +183,99 @@ class QueryUtil {
         }
     }
 
+    /**
+     * Collects documents referencing a class, or any class directly in a package,
+     * with the given usage types in a single pass over the references terms.
+     * The references terms of a class are adjacent in the term dictionary as they
+     * share the class name prefix followed by the usage type flags.
+     */
+    private static final class UsagesFilter extends Filter {
+
+        private final String prefix;
+        private final boolean packageMembers;
+        private final Set<? extends UsageType> mask;
+        private final boolean all;
+
+        UsagesFilter(
+                @NonNull final String prefix,
+                final boolean packageMembers,
+                @NonNull final Set<? extends UsageType> mask,
+                final boolean all) {
+            assert prefix != null;
+            assert mask != null;
+            this.prefix = prefix;
+            this.packageMembers = packageMembers;
+            this.mask = mask;
+            this.all = all;
+        }
+
+        @NonNull
+        @Override
+        public DocIdSet getDocIdSet(@NonNull final IndexReader reader) throws IOException {
+            if (mask.isEmpty() && !all) {
+                return DocIdSet.EMPTY_DOCIDSET;
+            }
+            final Term startTerm = new Term(DocumentUtil.FIELD_REFERENCES, prefix);
+            final String fieldName = startTerm.field();
+            final TermEnum enumerator = reader.terms(startTerm);
+            try {
+                OpenBitSet bitSet = null;
+                final int[] docs = new int[32];
+                final int[] freqs = new int[32];
+                final TermDocs termDocs = reader.termDocs();
+                try {
+                    do {
+                        final Term term = enumerator.term();
+                        if (term == null || fieldName != term.field()) {
+                            break;
+                        }
+                        final String text = term.text();
+                        if (!text.startsWith(prefix)) {
+                            break;
+                        }
+                        if (!accepts(text)) {
+                            continue;
+                        }
+                        if (bitSet == null) {
+                            bitSet = new OpenBitSet(reader.maxDoc());
+                        }
+                        termDocs.seek(enumerator);
+                        while (true) {
+                            final int count = termDocs.read(docs, freqs);
+                            if (count != 0) {
+                                for (int i = 0; i < count; i++) {
+                                    bitSet.set(docs[i]);
+                                }
+                            } else {
+                                break;
+                            }
+                        }
+                    } while (enumerator.next());
+                } finally {
+                    termDocs.close();
+                }
+                return bitSet == null ?
+                    DocIdSet.EMPTY_DOCIDSET :
+                    bitSet;
+            } finally {
+                enumerator.close();
+            }
+        }
+
+        private boolean accepts(@NonNull final String rawUsage) {
+            final int nameEnd = DocumentUtil.usageNameLength(rawUsage);
+            if (packageMembers) {
+                if (nameEnd <= prefix.length() ||
+                    rawUsage.lastIndexOf(BinaryName.PKG_SEPARATOR, nameEnd - 1) >= prefix.length()) {
+                    return false;
+                }
+            } else if (nameEnd != prefix.length()) {
+                return false;
+            }
+            return DocumentUtil.hasUsageTypes(rawUsage, mask, all);
+        }
+    }
+
     private static final class PackagesFilter extends Filter {
 
         private final SortedSet<String> pkgs;
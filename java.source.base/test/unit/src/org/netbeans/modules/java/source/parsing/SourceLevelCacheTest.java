@@ -0,0 +1,94 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.netbeans.modules.java.source.parsing;
+
+import com.sun.tools.javac.code.Source;
+import java.io.File;
+import java.util.Collections;
+import org.netbeans.api.java.classpath.ClassPath;
+import org.netbeans.api.java.source.ClasspathInfo;
+import org.netbeans.junit.NbTestCase;
+import org.netbeans.spi.java.classpath.ClassPathFactory;
+import org.netbeans.spi.java.classpath.support.ClassPathSupport;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+import org.openide.util.Utilities;
+
+public class SourceLevelCacheTest extends NbTestCase {
+
+    public SourceLevelCacheTest(String name) {
+        super(name);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        clearWorkDir();
+    }
+
+    public void testRevalidatedAfterClasspathChange() throws Exception {
+        final File noJdk = dir("boot1");
+        final File jdk = dir("boot2",
+                "java/lang/Object.class",           //NOI18N
+                "java/lang/AssertionError.class",   //NOI18N
+                "java/lang/StringBuilder.class",    //NOI18N
+                "java/lang/AutoCloseable.class");   //NOI18N
+        final MutableCp boot = new MutableCp(Collections.singletonList(ClassPathSupport.createResource(Utilities.toURI(noJdk).toURL())));
+        final ClasspathInfo cpInfo = ClasspathInfo.create(
+                ClassPathFactory.createClassPath(boot),
+                ClassPath.EMPTY,
+                ClassPathSupport.createClassPath(Utilities.toURI(dir("src")).toURL()));
+        assertEquals(Source.JDK1_3, SourceLevelCache.validateSourceLevel("1.7", cpInfo, false));   //NOI18N
+        assertEquals(Source.JDK1_3, SourceLevelCache.validateSourceLevel("1.7", cpInfo, false));   //NOI18N
+        boot.setImpls(Collections.singletonList(ClassPathSupport.createResource(Utilities.toURI(jdk).toURL())));
+        assertEquals(Source.JDK1_7, SourceLevelCache.validateSourceLevel("1.7", cpInfo, false));   //NOI18N
+        boot.setImpls(Collections.singletonList(ClassPathSupport.createResource(Utilities.toURI(noJdk).toURL())));
+        assertEquals(Source.JDK1_3, SourceLevelCache.validateSourceLevel("1.7", cpInfo, false));   //NOI18N
+    }
+
+    public void testSourceRootContentChange() throws Exception {
+        final File jdk = dir("boot",
+                "java/lang/Object.class",           //NOI18N
+                "java/lang/StringBuilder.class",    //NOI18N
+                "java/lang/AutoCloseable.class");   //NOI18N
+        final File src = dir("src");
+        final ClasspathInfo cpInfo = ClasspathInfo.create(
+                ClassPathSupport.createClassPath(Utilities.toURI(jdk).toURL()),
+                ClassPath.EMPTY,
+                ClassPathSupport.createClassPath(Utilities.toURI(src).toURL()));
+        assertEquals(Source.JDK1_3, SourceLevelCache.validateSourceLevel("1.7", cpInfo, false));   //NOI18N
+        //The project provides its own java.lang classes as sources, no classpath event
+        final FileObject assertionError = FileUtil.createData(FileUtil.toFileObject(src), "java/lang/AssertionError.java");  //NOI18N
+        assertEquals(Source.JDK1_7, SourceLevelCache.validateSourceLevel("1.7", cpInfo, false));   //NOI18N
+        assertionError.delete();
+        assertEquals(Source.JDK1_3, SourceLevelCache.validateSourceLevel("1.7", cpInfo, false));   //NOI18N
+    }
+
+    private File dir(final String name, final String... files) throws Exception {
+        final File root = new File(getWorkDir(), name);
+        root.mkdirs();
+        for (String file : files) {
+            final File f = new File(root, file.replace('/', File.separatorChar));
+            f.getParentFile().mkdirs();
+            assertTrue(f.createNewFile());
+        }
+        return root;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.netbeans.modules.java.source.usages;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import javax.lang.model.element.ElementKind;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.Version;
+import org.netbeans.api.annotations.common.NonNull;
+import org.netbeans.junit.NbTestCase;
+import org.netbeans.modules.java.source.usages.ClassIndexImpl.UsageType;
+import org.openide.util.Pair;
+
+/**
+ * Tests of the usages queries created by {@link QueryUtil}.
+ */
+public class QueryUtilTest extends NbTestCase {
+
+    private RAMDirectory dir;
+    private IndexReader reader;
+
+    public QueryUtilTest(final String name) {
+        super(name);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        dir = new RAMDirectory();
+        final IndexWriter out = new IndexWriter(
+                dir,
+                new IndexWriterConfig(Version.LUCENE_35, DocumentUtil.createAnalyzer()));
+        try {
+            addDocument(out, "p.UsesA", usage("p.A", UsageType.TYPE_REFERENCE));  //NOI18N
+            addDocument(out, "p.ExtendsA", usage("p.A", UsageType.SUPER_CLASS, UsageType.TYPE_REFERENCE));  //NOI18N
+            addDocument(out, "p.UsesNested", usage("p.A$Inner", UsageType.TYPE_REFERENCE));  //NOI18N
+            addDocument(out, "p.UsesAB", usage("p.AB", UsageType.TYPE_REFERENCE));  //NOI18N
+            addDocument(out, "p.UsesSub", usage("p.sub.C", UsageType.TYPE_REFERENCE));  //NOI18N
+            addDocument(out, "p.UsesPq", usage("pq.E", UsageType.TYPE_REFERENCE));  //NOI18N
+            addDocument(out, "p.UsesDefault", usage("D", UsageType.METHOD_REFERENCE)); //NOI18N
+            addDocument(out, "CallsA", usage("p.A", UsageType.METHOD_REFERENCE));  //NOI18N
+        } finally {
+            out.close();
+        }
+        reader = IndexReader.open(dir);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        reader.close();
+        dir.close();
+        super.tearDown();
+    }
+
+    public void testClassUsages() throws Exception {
+        assertEquals(
+            Arrays.asList("p.ExtendsA", "p.UsesA"),  //NOI18N
+            find(QueryUtil.createUsagesQuery("p.A", EnumSet.of(UsageType.TYPE_REFERENCE), Occur.SHOULD)));  //NOI18N
+        assertEquals(
+            "Nested class is a different class",    //NOI18N
+            Collections.singletonList("p.UsesNested"),  //NOI18N
+            find(QueryUtil.createUsagesQuery("p.A$Inner", EnumSet.of(UsageType.TYPE_REFERENCE), Occur.SHOULD)));  //NOI18N
+        assertEquals(
+            "Class sharing the name prefix is a different class",    //NOI18N
+            Collections.singletonList("p.UsesAB"),  //NOI18N
+            find(QueryUtil.createUsagesQuery("p.AB", EnumSet.of(UsageType.TYPE_REFERENCE), Occur.SHOULD)));  //NOI18N
+        assertEquals(
+            Collections.emptyList(),
+            find(QueryUtil.createUsagesQuery("p", EnumSet.allOf(UsageType.class), Occur.SHOULD)));  //NOI18N
+        assertEquals(
+            Collections.singletonList("p.UsesDefault"),  //NOI18N
+            find(QueryUtil.createUsagesQuery("D", EnumSet.allOf(UsageType.class), Occur.SHOULD)));  //NOI18N
+    }
+
+    public void testPackageUsages() throws Exception {
+        assertEquals(
+            "Members of package including nested classes but no subpackages", //NOI18N
+            Arrays.asList("CallsA", "p.ExtendsA", "p.UsesA", "p.UsesAB", "p.UsesNested"),  //NOI18N
+            find(QueryUtil.createPackageUsagesQuery("p", EnumSet.allOf(UsageType.class), Occur.SHOULD)));  //NOI18N
+        assertEquals(
+            Collections.singletonList("p.UsesSub"),  //NOI18N
+            find(QueryUtil.createPackageUsagesQuery("p.sub", EnumSet.allOf(UsageType.class), Occur.SHOULD)));  //NOI18N
+        assertEquals(
+            Collections.singletonList("p.UsesPq"),  //NOI18N
+            find(QueryUtil.createPackageUsagesQuery("pq", EnumSet.allOf(UsageType.class), Occur.SHOULD)));  //NOI18N
+        assertEquals(
+            Collections.emptyList(),
+            find(QueryUtil.createPackageUsagesQuery("p.s", EnumSet.allOf(UsageType.class), Occur.SHOULD)));  //NOI18N
+        assertEquals(
+            "Members of default package",   //NOI18N
+            Collections.singletonList("p.UsesDefault"),  //NOI18N
+            find(QueryUtil.createPackageUsagesQuery("", EnumSet.allOf(UsageType.class), Occur.SHOULD)));  //NOI18N
+    }
+
+    public void testOccur() throws Exception {
+        final Set<UsageType> superOrMethod = EnumSet.of(UsageType.SUPER_CLASS, UsageType.METHOD_REFERENCE);
+        final Set<UsageType> superAndType = EnumSet.of(UsageType.SUPER_CLASS, UsageType.TYPE_REFERENCE);
+        assertEquals(
+            Arrays.asList("CallsA", "p.ExtendsA"),  //NOI18N
+            find(QueryUtil.createUsagesQuery("p.A", superOrMethod, Occur.SHOULD)));  //NOI18N
+        assertEquals(
+            Collections.emptyList(),
+            find(QueryUtil.createUsagesQuery("p.A", superOrMethod, Occur.MUST)));  //NOI18N
+        assertEquals(
+            Arrays.asList("p.ExtendsA", "p.UsesA"),  //NOI18N
+            find(QueryUtil.createUsagesQuery("p.A", superAndType, Occur.SHOULD)));  //NOI18N
+        assertEquals(
+            Collections.singletonList("p.ExtendsA"),  //NOI18N
+            find(QueryUtil.createUsagesQuery("p.A", superAndType, Occur.MUST)));  //NOI18N
+        assertEquals(
+            Collections.singletonList("p.ExtendsA"),  //NOI18N
+            find(QueryUtil.createPackageUsagesQuery("p", superAndType, Occur.MUST)));  //NOI18N
+        try {
+            QueryUtil.createUsagesQuery("p.A", superAndType, Occur.MUST_NOT);    //NOI18N
+            fail("MUST_NOT is not supported");  //NOI18N
+        } catch (IllegalArgumentException e) {
+            //Expected
+        }
+    }
+
+    public void testEmptyMask() throws Exception {
+        final Set<UsageType> none = EnumSet.noneOf(UsageType.class);
+        assertEquals(
+            "No usage type is required by any usage",   //NOI18N
+            Collections.emptyList(),
+            find(QueryUtil.createUsagesQuery("p.A", none, Occur.SHOULD)));  //NOI18N
+        assertEquals(
+            "All of no usage types are present in every usage", //NOI18N
+            Arrays.asList("CallsA", "p.ExtendsA", "p.UsesA"),  //NOI18N
+            find(QueryUtil.createUsagesQuery("p.A", none, Occur.MUST)));  //NOI18N
+        assertEquals(
+            Collections.emptyList(),
+            find(QueryUtil.createPackageUsagesQuery("p", none, Occur.SHOULD)));  //NOI18N
+    }
+
+    private static String usage(
+            @NonNull final String className,
+            @NonNull final UsageType... usageTypes) {
+        return DocumentUtil.encodeUsage(className, EnumSet.copyOf(Arrays.asList(usageTypes)));
+    }
+
+    private static void addDocument(
+            @NonNull final IndexWriter out,
+            @NonNull final String binaryName,
+            @NonNull final String... usages) throws IOException {
+        final Pair<BinaryName,String> name = Pair.<BinaryName,String>of(
+                BinaryName.create(binaryName, ElementKind.CLASS),
+                null);
+        out.addDocument(DocumentUtil.documentConvertor().convert(
+                Pair.<Pair<BinaryName,String>,Object[]>of(
+                    name,
+                    new Object[] {Arrays.asList(usages), null, null})));
+    }
+
+    private List<String> find(@NonNull final Query query) throws IOException {
+        final IndexSearcher searcher = new IndexSearcher(reader);
+        try {
+            final List<String> res = new ArrayList<>();
+            for (ScoreDoc sd : searcher.search(query, reader.maxDoc()).scoreDocs) {
+                res.add(DocumentUtil.getBinaryName(searcher.doc(sd.doc)));
+            }
+            Collections.sort(res);
+            return res;
+        } finally {
+            searcher.close();
+        }
+    }
+}
@@ -502,6 +502,26 @@ public final class TokenHierarchyOperation<I, T extends TokenId> { // "I" stands
         return tll;
     }
 
+    /**
+     * Check whether there is a token list list joining sections
+     * i.e. whether the hierarchy contains an embedded language which spans multiple tokens
+     * (typical for mixed-language documents).
+     * <br/>
+     * It should be called with read-lock acquired.
+     */
+    public boolean hasJoinSections() {
+        synchronized (rootTokenList) {
+            if (path2tokenListList != null) {
+                for (TokenListList<?> tll : path2tokenListList.values()) {
+                    if (tll.joinSections()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
     public Object rootChildrenLanguages() { // Not used from API
         return rootChildrenLanguages;
     }
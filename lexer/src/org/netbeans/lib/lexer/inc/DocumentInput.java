@@ -65,10 +65,13 @@ extends MutableTextInput<D> implements DocumentListener {
     private D doc;
     
     private CharSequence text;
+
+    private final EmbeddingPrelexer embeddingPrelexer;
     
     public DocumentInput(D doc) {
         this.doc = doc;
         this.text = DocumentUtilities.getText(doc);
+        this.embeddingPrelexer = new EmbeddingPrelexer(doc);
         // Add document listener with the appropriate priority (if priority listening is supported)
         DocumentUtilities.addDocumentListener(doc, this, DocumentListenerPriority.LEXER);
     }
@@ -126,6 +129,7 @@ extends MutableTextInput<D> implements DocumentListener {
     int insertedLength) {
         try {
             tokenHierarchyControl().textModified(offset, length, removedText, insertedLength);
+            embeddingPrelexer.schedule();
         } catch (RuntimeException e) {
             // Log the exception and attempt to recover by recreating the token hierarchy
             throw LexerApiPackageAccessor.get().tokenHierarchyOperation(tokenHierarchyControl().tokenHierarchy()).recreateAfterError(e);
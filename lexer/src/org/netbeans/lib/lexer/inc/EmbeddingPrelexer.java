@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.netbeans.lib.lexer.inc;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.text.Document;
+import org.netbeans.api.lexer.TokenHierarchy;
+import org.netbeans.api.lexer.TokenSequence;
+import org.netbeans.lib.editor.util.swing.DocumentUtilities;
+import org.netbeans.lib.lexer.LexerApiPackageAccessor;
+import org.netbeans.lib.lexer.TokenHierarchyOperation;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Creation of embedded token lists ahead of time in a background thread.
+ * <br/>
+ * Embedded token lists get created lazily once a token sequence is asked
+ * for an embedding which typically happens in the EDT during painting
+ * of a freshly scrolled area. For mixed-language documents with many
+ * embedded sections this is done in advance once the document modifications settle.
+ * <br/>
+ * The work is only done for hierarchies joining sections (HTML, JSP, PHP etc.)
+ * since plain languages with just a few local embeddings (e.g. string escapes)
+ * would only retain extra memory without a noticeable benefit.
+ * <br/>
+ * The document is read-locked for short chunks only and the work is abandoned
+ * once the document gets modified (it will be rescheduled by the modification).
+ */
+final class EmbeddingPrelexer implements Runnable {
+
+    // -J-Dorg.netbeans.lib.lexer.inc.EmbeddingPrelexer.level=FINE
+    private static final Logger LOG = Logger.getLogger(EmbeddingPrelexer.class.getName());
+
+    /**
+     * Turns the prelexing off e.g. for tests doing strict checking of the hierarchy updates.
+     * It is read upon each scheduling so that it may be changed at runtime.
+     */
+    static final String DISABLED_PROPERTY = "org.netbeans.lib.lexer.inc.EmbeddingPrelexer.disabled"; // NOI18N
+
+    private static final RequestProcessor RP = new RequestProcessor("Lexer Embedding Prelexer", 1, false, false); // NOI18N
+
+    /**
+     * Delay after last modification before the prelexing starts.
+     */
+    private static final int DELAY = 500;
+
+    /**
+     * Maximum time the document read-lock is held by a single chunk of work.
+     */
+    private static final long CHUNK_NANOS = 20L * 1000L * 1000L;
+
+    private final Document doc;
+
+    private final RequestProcessor.Task task;
+
+    /**
+     * Offset where next chunk of work should continue.
+     */
+    private int nextOffset;
+
+    /**
+     * Document version for which the nextOffset is valid.
+     */
+    private long version;
+
+    EmbeddingPrelexer(Document doc) {
+        this.doc = doc;
+        this.task = RP.create(this);
+    }
+
+    void schedule() {
+        if (!Boolean.getBoolean(DISABLED_PROPERTY)) {
+            task.schedule(DELAY);
+        }
+    }
+
+    @Override
+    public void run() {
+        nextOffset = 0;
+        version = DocumentUtilities.getDocumentVersion(doc);
+        long startTime = System.currentTimeMillis();
+        int chunkCount = 0;
+        while (nextOffset != -1) {
+            doc.render(new Runnable() {
+                @Override
+                public void run() {
+                    if (DocumentUtilities.getDocumentVersion(doc) != version) {
+                        nextOffset = -1; // Modified => a new task was scheduled
+                    } else {
+                        nextOffset = prelexChunk(nextOffset);
+                    }
+                }
+            });
+            chunkCount++;
+            if (nextOffset != -1) {
+                // Let document modifications proceed
+                Thread.yield();
+            }
+        }
+        if (LOG.isLoggable(Level.FINE)) {
+            LOG.fine("Embeddings prelexed in " + (System.currentTimeMillis() - startTime) + // NOI18N
+                    " ms (" + chunkCount + " chunks) for doc " + doc + '\n'); // NOI18N
+        }
+    }
+
+    /**
+     * Create embeddings for top-level tokens starting at the given offset.
+     *
+     * @param offset offset where to start.
+     * @return offset where next chunk should start or -1 if there is no more work.
+     */
+    int prelexChunk(int offset) {
+        TokenHierarchy<?> hi = TokenHierarchy.get(doc);
+        TokenHierarchyOperation<?,?> op = LexerApiPackageAccessor.get().tokenHierarchyOperation(hi);
+        if (!op.isActiveNoInit() || !op.hasJoinSections()) {
+            return -1;
+        }
+        TokenSequence<?> ts = hi.tokenSequence();
+        if (ts == null) {
+            return -1;
+        }
+        long deadline = System.nanoTime() + CHUNK_NANOS;
+        ts.move(offset);
+        while (ts.moveNext()) {
+            prelex(ts.embedded());
+            if (System.nanoTime() > deadline) {
+                return ts.offset() + ts.token().length();
+            }
+        }
+        return -1;
+    }
+
+    private static void prelex(TokenSequence<?> ets) {
+        if (ets != null) {
+            while (ets.moveNext()) {
+                prelex(ets.embedded());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,101 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.netbeans.lib.lexer.inc;
+
+import javax.swing.text.AbstractDocument;
+import org.netbeans.api.lexer.Language;
+import org.netbeans.api.lexer.TokenHierarchy;
+import org.netbeans.api.lexer.TokenSequence;
+import org.netbeans.junit.NbTestCase;
+import org.netbeans.lib.lexer.LexerApiPackageAccessor;
+import org.netbeans.lib.lexer.TokenList;
+import org.netbeans.lib.lexer.lang.TestJoinTopTokenId;
+import org.netbeans.lib.lexer.lang.TestTokenId;
+import org.netbeans.lib.lexer.test.ModificationTextDocument;
+
+public class EmbeddingPrelexerTest extends NbTestCase {
+
+    private static final int SECTION_COUNT = 2000;
+
+    public EmbeddingPrelexerTest(String testName) {
+        super(testName);
+    }
+
+    public void testPrelexJoinedDocument() throws Exception {
+        StringBuilder sb = new StringBuilder(SECTION_COUNT * 12);
+        for (int i = 0; i < SECTION_COUNT; i++) {
+            sb.append("<a>{b c}\"d\"");
+        }
+        ModificationTextDocument doc = new ModificationTextDocument();
+        doc.insertString(0, sb.toString(), null);
+        doc.putProperty(Language.class, TestJoinTopTokenId.language());
+        TokenHierarchy<?> hi = TokenHierarchy.get(doc);
+        EmbeddingPrelexer prelexer = new EmbeddingPrelexer(doc);
+        ((AbstractDocument)doc).readLock();
+        try {
+            TokenSequence<?> ts = hi.tokenSequence();
+            assertTrue(ts.moveNext());
+            assertNotNull(ts.embedded()); // Joined sections => TokenListList gets created
+            assertTrue(embeddingCount(hi) < 3 * SECTION_COUNT);
+
+            long tm = System.currentTimeMillis();
+            int offset = 0;
+            int chunkCount = 0;
+            while (offset != -1) {
+                offset = prelexer.prelexChunk(offset);
+                chunkCount++;
+            }
+            tm = System.currentTimeMillis() - tm;
+            log("Prelexed " + SECTION_COUNT + " sections in " + // NOI18N
+                    tm + " ms (" + chunkCount + " chunks)."); // NOI18N
+            // Each top-level token has an embedding (including TEXT token of the document's ending newline)
+            assertEquals(3 * SECTION_COUNT + 1, embeddingCount(hi));
+        } finally {
+            ((AbstractDocument)doc).readUnlock();
+        }
+    }
+
+    public void testNoPrelexWithoutJoinSections() throws Exception {
+        ModificationTextDocument doc = new ModificationTextDocument();
+        doc.insertString(0, "a/*abc def*/b/*ghi*/", null);
+        doc.putProperty(Language.class, TestTokenId.language());
+        TokenHierarchy<?> hi = TokenHierarchy.get(doc);
+        ((AbstractDocument)doc).readLock();
+        try {
+            assertNotNull(hi.tokenSequence());
+            assertEquals(-1, new EmbeddingPrelexer(doc).prelexChunk(0));
+            assertEquals(0, embeddingCount(hi));
+        } finally {
+            ((AbstractDocument)doc).readUnlock();
+        }
+    }
+
+    private static int embeddingCount(TokenHierarchy<?> hi) {
+        TokenList<?> rootTokenList = LexerApiPackageAccessor.get().tokenHierarchyOperation(hi).rootTokenList();
+        int count = 0;
+        for (int i = rootTokenList.tokenCountCurrent() - 1; i >= 0; i--) {
+            if (rootTokenList.tokenOrEmbedding(i).embedding() != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+}
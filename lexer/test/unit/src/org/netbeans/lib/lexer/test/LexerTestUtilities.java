@@ -545,6 +545,8 @@ public final class LexerTestUtilities {
      */
     public static void setTesting(boolean testing) {
         TokenList.LOG.setLevel(testing ? Level.FINE : Level.INFO);
+        // Background prelexing of embeddings would interfere with the checks
+        System.setProperty("org.netbeans.lib.lexer.inc.EmbeddingPrelexer.disabled", String.valueOf(testing)); // NOI18N
     }
     
     /**
@@ -50,10 +50,12 @@ abstract class AbstractLongMap {
     
     //~ Constructors -------------------------------------------------------------------------------------------------------------
 
-    AbstractLongMap(int size,int idSize,int foffsetSize,int valueSize) throws FileNotFoundException, IOException {
+    AbstractLongMap(long size,int idSize,int foffsetSize,int valueSize) throws FileNotFoundException, IOException {
         assert idSize == 4 || idSize == 8;
         assert foffsetSize == 4 || foffsetSize == 8;
-        keys = (size * 4L) / 3L;
+        // object IDs are aligned addresses, odd number of keys spreads them
+        // over all slots instead of every 2nd, 4th or 8th slot
+        keys = ((size * 4L) / 3L) | 1L;
         ID_SIZE = idSize;
         FOFFSET_SIZE = foffsetSize;
         KEY_SIZE = ID_SIZE;
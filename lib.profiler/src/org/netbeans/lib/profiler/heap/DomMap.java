@@ -71,7 +71,7 @@ class DomMap extends AbstractLongMap {
     
     //~ Constructors -------------------------------------------------------------------------------------------------------------
 
-    DomMap(int size,int idSize,int foffsetSize) throws FileNotFoundException, IOException {
+    DomMap(long size,int idSize,int foffsetSize) throws FileNotFoundException, IOException {
         super(size,idSize,foffsetSize,idSize);
     }
 
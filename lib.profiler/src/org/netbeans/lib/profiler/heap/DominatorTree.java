@@ -27,6 +27,12 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 /**
  *
@@ -38,6 +44,9 @@ class DominatorTree {
     private static final int BUFFER_SIZE = (64 * 1024) / 8;
     private static final int ADDITIONAL_IDS_THRESHOLD = 30;
     private static final int ADDITIONAL_IDS_THRESHOLD_DIRTYSET_SAME_SIZE = 5;
+    static final String THREADS_PROPERTY = "org.netbeans.lib.profiler.heap.dominatorThreads"; // NOI18N
+    private static final int BATCH_SIZE = 64 * 1024;
+    private static final int MIN_CHUNK_SIZE = 1024;
     
     //~ Instance fields ----------------------------------------------------------------------------------------------------------
     
@@ -50,6 +59,8 @@ class DominatorTree {
     private int dirtySetSameSize;
     private Map canContainItself;
     private Map nearestGCRootCache = new NearestGCRootCache(400000);
+    private ExecutorService executor;
+    private int procCount;
 
     //~ Constructors -------------------------------------------------------------------------------------------------------------
     
@@ -71,6 +82,10 @@ class DominatorTree {
     synchronized void computeDominators() {
         boolean changed = true;
         boolean igonoreDirty;
+        procCount = Integer.getInteger(THREADS_PROPERTY, Runtime.getRuntime().availableProcessors()).intValue();
+        if (procCount > 1) {
+            executor = Executors.newFixedThreadPool(procCount, new DominatorThreadFactory());
+        }
         try {
             do {
                 currentMultipleParents.rewind();
@@ -80,6 +95,11 @@ class DominatorTree {
             } while (changed || !igonoreDirty);
         } catch (IOException ex) {
             ex.printStackTrace();
+        } finally {
+            if (executor != null) {
+                executor.shutdown();
+                executor = null;
+            }
         }
         deleteBuffers();
         dirtySet = new LongSet();
@@ -90,6 +110,8 @@ class DominatorTree {
         LongSet newDirtySet = new LongSet(map.size()/10);
         List<Long> additionalIds = new ArrayList();
         int additionalIndex = 0;
+        long[] batch = new long[BATCH_SIZE];
+        long[] newIdoms = executor != null ? new long[BATCH_SIZE] : null;
         // debug 
 //        long processedId = 0;
 //        long changedId = 0;
@@ -101,31 +123,42 @@ class DominatorTree {
 //        List<Long> newDomIds = new ArrayList();
 
 //System.out.println("New level, dirtyset size: "+dirtySet.size());
+        // Instances are processed in batches. The new idoms of a batch are computed
+        // concurrently against the map as it was at the start of the batch and then
+        // stored in the original order, so the result does not depend on scheduling.
         for (;;) {
-            long instanceId = readLong();
-            if (instanceId == 0) {  // end of level
-                if (additionalIndex >= additionalIds.size()) {
-                    if (additionalIndex>0) {
+            int size = 0;
+            boolean levelEnd = false;
+
+            while (size < batch.length) {
+                long instanceId = readLong();
+                if (instanceId == 0) {  // end of level
+                    if (additionalIndex >= additionalIds.size()) {
+                        if (additionalIndex>0) {
 //System.out.println("Additional instances "+additionalIndex);
+                        }
+                        levelEnd = true;
+                        break;
                     }
-                    break;
+                    instanceId = additionalIds.get(additionalIndex++).longValue();
+                }
+                if (isDirty(instanceId, map.get(instanceId), ignoreDirty)) {
+                    batch[size++] = instanceId;
                 }
-                instanceId = additionalIds.get(additionalIndex++).longValue();
             }
-            long oldIdom = map.get(instanceId);
+            if (newIdoms != null) {
+                computeIdoms(batch, newIdoms, size);
+            }
+            for (int i = 0; i < size; i++) {
+                long instanceId = batch[i];
+                long oldIdom = map.get(instanceId);
 //index++;
-            if (oldIdom == -1 || (oldIdom > 0 && (ignoreDirty || dirtySet.contains(oldIdom) || dirtySet.contains(instanceId)))) {            
-//processedId++;
-                LongMap.Entry entry = heap.idToOffsetMap.get(instanceId);
-                List refs = entry.getReferences();
-                Iterator refIt = refs.iterator();
-                long newIdomId = ((Long)refIt.next()).longValue();
-                boolean dirty = false;
-                
-                while(refIt.hasNext() && newIdomId != 0) {
-                    Long refIdObj = (Long)refIt.next();
-                    newIdomId = intersect(newIdomId, refIdObj.longValue());
+                if (!isDirty(instanceId, oldIdom, ignoreDirty)) {  // already updated in this batch
+                    continue;
                 }
+//processedId++;
+                long newIdomId = newIdoms != null ? newIdoms[i] : computeIdom(instanceId, false);
+
                 if (oldIdom == -1) {
 //addedBynewDirtySet.add(newDirtySet.contains(instanceId) && !dirtySet.contains(instanceId));
                     map.put(instanceId, newIdomId);
@@ -152,6 +185,9 @@ class DominatorTree {
 //newDomIds.add(newIdomIdObj);
                 }
             }
+            if (levelEnd && additionalIndex >= additionalIds.size()) {
+                break;
+            }
         }
         if (dirtySet.size() != newDirtySet.size()) {
             dirtySetSameSize = 0;
@@ -166,7 +202,57 @@ class DominatorTree {
 //System.out.println("-------------------");
         return changed;
     }
-        
+
+    private boolean isDirty(long instanceId, long oldIdom, boolean ignoreDirty) {
+        return oldIdom == -1 || (oldIdom > 0 && (ignoreDirty || dirtySet.contains(oldIdom) || dirtySet.contains(instanceId)));
+    }
+
+    private long computeIdom(long instanceId, boolean concurrent) {
+        LongMap.Entry entry = heap.idToOffsetMap.get(instanceId);
+        List refs = entry.getReferences();
+        Iterator refIt = refs.iterator();
+        long newIdomId = ((Long)refIt.next()).longValue();
+
+        while(refIt.hasNext() && newIdomId != 0) {
+            Long refIdObj = (Long)refIt.next();
+            newIdomId = intersect(newIdomId, refIdObj.longValue(), concurrent);
+        }
+        return newIdomId;
+    }
+
+    private void computeIdoms(final long[] instanceIds, final long[] newIdoms, int size) throws IOException {
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, (size + procCount - 1) / procCount);
+        List<Future<Void>> chunks = new ArrayList();
+
+        for (int start = 0; start < size; start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(size, start + chunkSize);
+
+            chunks.add(executor.submit(new Callable<Void>() {
+                public Void call() {
+                    for (int i = from; i < to; i++) {
+                        newIdoms[i] = computeIdom(instanceIds[i], true);
+                    }
+                    return null;
+                }
+            }));
+        }
+        try {
+            for (Future<Void> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
     private void updateAdditionalIds(final long instanceId, final List<Long> additionalIds) {
         Instance i = heap.getInstanceByID(instanceId);
 //System.out.println("Inspecting "+printInstance(instanceIdObj));
@@ -258,15 +344,22 @@ class DominatorTree {
     }
     
     private long getIdomId(long instanceIdLong) {
+        return getIdomId(instanceIdLong, false);
+    }
+
+    private long getIdomId(long instanceIdLong, boolean concurrent) {
         long idom = map.get(instanceIdLong);
         
         if (idom != -1) {
             return idom;
         }
+        if (concurrent) {   // nearestGCRootCache is not thread safe
+            return heap.idToOffsetMap.get(instanceIdLong).getNearestGCRootPointer();
+        }
         return getNearestGCRootPointer(instanceIdLong);
     }
     
-    private long intersect(long idomId, long refId) {
+    private long intersect(long idomId, long refId, boolean concurrent) {
         if (idomId == refId) {
             return idomId;
         }
@@ -284,7 +377,7 @@ class DominatorTree {
         while(true) {
             if (rightIdom == 0 && leftIdom == 0) return 0;
             if (leftIdom != 0) {
-                leftIdom = getIdomId(leftIdom);
+                leftIdom = getIdomId(leftIdom, concurrent);
                 if (leftIdom != 0) {
                     if (rightIdoms.contains(leftIdom)) {
                         return leftIdom;
@@ -293,7 +386,7 @@ class DominatorTree {
                 }
             }
             if (rightIdom != 0) {
-                rightIdom = getIdomId(rightIdom);
+                rightIdom = getIdomId(rightIdom, concurrent);
                 if (rightIdom != 0) {
                     if (leftIdoms.contains(rightIdom)) {
                         return rightIdom;
@@ -346,6 +439,15 @@ class DominatorTree {
         
     }
     
+    private static final class DominatorThreadFactory implements ThreadFactory {
+
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "Dominator Tree Computation"); // NOI18N
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
     private static final class NearestGCRootCache extends LinkedHashMap {
         private final int maxSize;
         
@@ -97,7 +97,7 @@ class HprofHeap implements Heap {
     private boolean referencesComputed;
     private boolean retainedSizeComputed;
     private boolean retainedSizeByClassComputed;
-    private int idMapSize;
+    private long idMapSize;
     private int segment;
 
     //~ Constructors -------------------------------------------------------------------------------------------------------------
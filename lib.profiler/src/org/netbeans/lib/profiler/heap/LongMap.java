@@ -238,7 +238,7 @@ class LongMap extends AbstractLongMap {
     
     //~ Constructors -------------------------------------------------------------------------------------------------------------
 
-    LongMap(int size,int idSize,int foffsetSize) throws FileNotFoundException, IOException {
+    LongMap(long size,int idSize,int foffsetSize) throws FileNotFoundException, IOException {
         super(size,idSize,foffsetSize,foffsetSize + 4 + 1 + idSize + foffsetSize);
         referenceList = new NumberList(ID_SIZE);
     }
@@ -22,6 +22,7 @@ package org.netbeans.lib.profiler.heap;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.ArrayList;
@@ -262,11 +263,14 @@ class NumberList {
     private byte[] getBlock(long offset) throws IOException {
         byte[] block;
         if (offset < mappedSize) {
+            // own view of the buffer, the block can be read from several threads
+            ByteBuffer blockBuf = buf.duplicate();
             block = new byte[blockSize];
-            buf.position((int)offset);
-            buf.get(block);
+            blockBuf.position((int)offset);
+            blockBuf.get(block);
             return block;
-        } else {
+        }
+        synchronized (this) {
             Long offsetObj = new Long(offset);
 
             block = (byte[]) blockCache.get(offsetObj);
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.netbeans.lib.profiler.heap;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the dominators computed by several threads are the same
+ * as the ones computed sequentially.
+ */
+public class DominatorTreeTest {
+    /** shared nodes, so that there are many instances with multiple parents */
+    private static Node[] graph;
+
+    private File dump;
+
+    @Before
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        graph = new Node[20000];
+        for (int i = graph.length - 1; i >= 0; i--) {
+            Node n = new Node();
+            if (i + 1 < graph.length) {
+                n.left = graph[i + 1 + random.nextInt(Math.min(100, graph.length - i - 1))];
+                n.right = graph[i + 1 + random.nextInt(Math.min(100, graph.length - i - 1))];
+            }
+            graph[i] = n;
+        }
+        dump = File.createTempFile("dominators", ".hprof");
+        dump.delete();
+        HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+        bean.dumpHeap(dump.getPath(), true);
+        graph = null;
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(DominatorTree.THREADS_PROPERTY);
+        if (dump != null) {
+            dump.delete();
+        }
+    }
+
+    @Test
+    public void testParallelSameAsSequential() throws IOException {
+        Heap sequential = computeRetainedSizes(1);
+        Heap parallel = computeRetainedSizes(4);
+
+        JavaClass nodeClass = parallel.getJavaClassByName(Node.class.getName());
+        assertEquals(20000, nodeClass.getInstancesCount());
+        assertEquals(sequential.getJavaClassByName(Node.class.getName()).getRetainedSizeByClass(),
+                nodeClass.getRetainedSizeByClass());
+
+        Iterator seqIt = sequential.getAllInstancesIterator();
+        Iterator parIt = parallel.getAllInstancesIterator();
+        while (seqIt.hasNext()) {
+            Instance seqInstance = (Instance) seqIt.next();
+            Instance parInstance = (Instance) parIt.next();
+            if (seqInstance == null) {
+                assertNull(parInstance);
+                continue;
+            }
+            assertEquals(seqInstance.getInstanceId(), parInstance.getInstanceId());
+            assertEquals("Retained size of " + seqInstance.getInstanceId(),
+                    seqInstance.getRetainedSize(), parInstance.getRetainedSize());
+        }
+        assertFalse(parIt.hasNext());
+
+        List seqBiggest = sequential.getBiggestObjectsByRetainedSize(10);
+        List parBiggest = parallel.getBiggestObjectsByRetainedSize(10);
+        for (int i = 0; i < seqBiggest.size(); i++) {
+            assertEquals(((Instance) seqBiggest.get(i)).getInstanceId(), ((Instance) parBiggest.get(i)).getInstanceId());
+        }
+    }
+
+    private Heap computeRetainedSizes(int threads) throws IOException {
+        System.setProperty(DominatorTree.THREADS_PROPERTY, Integer.toString(threads));
+        Heap heap = HeapFactory.createHeap(dump);
+        // forces the computation of the dominator tree
+        heap.getBiggestObjectsByRetainedSize(1);
+        return heap;
+    }
+
+    private static final class Node {
+        Node left;
+        Node right;
+    }
+}
@@ -229,8 +229,12 @@ public class InterpDumb extends AbstractInterp {
 
         } finally {
             if (state == type.st_base) {
-                ops.logCompletedSequence(ctlSequence.toString());
-                ctlSequence = new StringBuilder();
+                // most of the time this is just a regular character,
+                // don't create a string for it unless someone listens
+                if (ops.isSequenceLogging()) {
+                    ops.logCompletedSequence(ctlSequence.toString());
+                }
+                ctlSequence.setLength(0);
             }
         }
     }
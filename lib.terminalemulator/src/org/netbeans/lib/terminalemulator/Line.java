@@ -36,6 +36,11 @@ final class Line {
     // SHOULD use shorts?
     private int capacity;	// == buf.length == attr.length
     private int length;		// how much of buf and attr is filled
+
+    // Compact form of lines in history, see compact().
+    private byte latin1[];	// replaces buf if all chars fit in a byte
+    private int runs[];		// replaces attr: pairs of count and attribute
+    private boolean compacted;	// compact() done and not undone since
     
     
     public Line() {
@@ -47,6 +52,9 @@ final class Line {
         capacity = 32;
         buf = new char[capacity];
         attr = null;
+        latin1 = null;
+        runs = null;
+        compacted = false;
         glyphId = 0;
         backgroundColor = 0;
         wrapped = false;
@@ -72,7 +80,111 @@ final class Line {
     }
     
     public boolean hasAttributes() {
-        return attr != null;
+        return attr != null || runs != null;
+    }
+
+    /**
+     * Store the line compactly.
+     * <p>
+     * Called once the line has scrolled out of view into history, where
+     * lines are hardly ever looked at again. Text in which all chars fit
+     * in a byte takes a byte per char and attributes, which usually come
+     * in long runs of the same value, are run length encoded. Slack
+     * capacity is dropped.
+     * <br>
+     * Reading the text and attributes works on the compact form directly,
+     * anything that modifies the line restores it first.
+     */
+    void compact() {
+        if (compacted) {
+            return;	// nothing changed since the last time
+        }
+        compacted = true;
+
+        if (attr != null) {
+            int nruns = 0;
+            for (int cx = 0; cx < length; cx++) {
+                if (cx == 0 || attr[cx] != attr[cx-1])
+                    nruns++;
+            }
+            if (nruns * 2 < length) {
+                runs = new int[nruns * 2];
+                int rx = -2;
+                for (int cx = 0; cx < length; cx++) {
+                    if (cx == 0 || attr[cx] != attr[cx-1]) {
+                        rx += 2;
+                        runs[rx+1] = attr[cx];
+                    }
+                    runs[rx]++;
+                }
+                attr = null;
+            } else if (length < capacity) {
+                int new_attr[] = new int[length];
+                System.arraycopy(attr, 0, new_attr, 0, length);
+                attr = new_attr;
+            }
+        }
+
+        boolean narrow = true;
+        for (int cx = 0; cx < length; cx++) {
+            if (buf[cx] > 0xff) {
+                narrow = false;
+                break;
+            }
+        }
+        if (narrow) {
+            latin1 = new byte[length];
+            for (int cx = 0; cx < length; cx++)
+                latin1[cx] = (byte) buf[cx];
+            buf = null;
+        } else if (length < capacity) {
+            char new_buf[] = new char[length];
+            System.arraycopy(buf, 0, new_buf, 0, length);
+            buf = new_buf;
+        }
+        capacity = length;
+    }
+
+    /**
+     * Undo compact().
+     */
+    private void expand() {
+        compacted = false;
+        if (latin1 == null && runs == null)
+            return;
+        if (latin1 != null) {
+            capacity = Math.max(length, 32);
+            buf = new char[capacity];
+            for (int cx = 0; cx < length; cx++)
+                buf[cx] = (char) (latin1[cx] & 0xff);
+            latin1 = null;
+        }
+        if (runs != null) {
+            attr = new int[capacity];
+            int cx = 0;
+            for (int rx = 0; rx < runs.length; rx += 2) {
+                for (int n = 0; n < runs[rx]; n++)
+                    attr[cx++] = runs[rx+1];
+            }
+            runs = null;
+        } else if (attr != null && attr.length < capacity) {
+            int new_attr[] = new int[capacity];
+            System.arraycopy(attr, 0, new_attr, 0, length);
+            attr = new_attr;
+        }
+    }
+
+    /**
+     * The chars of the line, possibly decoded from the compact form
+     * into a temporary array.
+     */
+    private char[] chars() {
+        if (latin1 == null)
+            return buf;
+        char chars[] = new char[length];
+        for (int cx = 0; cx < length; cx++)
+            chars[cx] = (char) (latin1[cx] & 0xff);
+        return chars;
     }
     
     private int glyphId;
@@ -129,10 +241,12 @@ final class Line {
     
     
     public void accumulateInto(int bcol, int ecol, StringBuffer buf) {
-        buf.append(this.buf, bcol, ecol-bcol+1);
+        buf.append(chars(), bcol, ecol-bcol+1);
     }
     
     public char charAt(int col) {
+        if (latin1 != null)
+            return (char) (latin1[col] & 0xff);
         return buf[col];
     }
     
@@ -143,16 +257,33 @@ final class Line {
     @Override
     public String toString() {
         assert false;
-        return new String(buf);
+        return new String(chars(), 0, length);
     }
     
     public char[] getChars(char[] array) {
+        if (latin1 != null) {
+            for (int cx = 0; cx < length; cx++)
+                array[cx] = (char) (latin1[cx] & 0xff);
+            return array;
+        }
         System.arraycopy(buf, 0, array, 0, length);
         return array;
     }
     
+    /**
+     * The attributes of the line. For a compacted line these are decoded
+     * into a temporary array, painting history does not inflate it.
+     */
     public int [] attrArray() {
-        return attr;
+        if (runs == null)
+            return attr;
+        int attrs[] = new int[length];
+        int cx = 0;
+        for (int rx = 0; rx < runs.length; rx += 2) {
+            for (int n = 0; n < runs[rx]; n++)
+                attrs[cx++] = runs[rx+1];
+        }
+        return attrs;
     }
     
     
@@ -207,7 +338,7 @@ final class Line {
         @SuppressWarnings("StringBufferMayBeStringBuilder")
 
         StringBuffer sb = new StringBuffer(length);
-        return sb.append(buf, 0, length);
+        return sb.append(chars(), 0, length);
     }
     
     /*
@@ -215,6 +346,7 @@ final class Line {
      */
     private void ensureCapacity(Term term, int min_capacity) {
         
+        expand();
         term.noteColumn(this, min_capacity);
         
         if (min_capacity <= capacity)
@@ -283,6 +415,7 @@ final class Line {
      * Line will grow to accomodate column.
      */
     public void setCharAt(Term term, char c, int column, int a, int eraseAttr) {
+        expand();
         if (column >= length) {
             ensureCapacity(term, column+1);
             fillGap(column, eraseAttr);
@@ -301,6 +434,7 @@ final class Line {
     public void deleteCharAt(int column) {
         if (column < 0 || column >= length)
             return;
+        expand();
         System.arraycopy(buf, column+1, buf, column, length-column-1);
         charAtPut(length-1, (char) 0);
         if (attr != null) {
@@ -393,11 +527,12 @@ final class Line {
         if (bcol < 0 ||  count < 0) {
             throw new IllegalArgumentException(String.format("offset=%d; count=%d; buf_length=%d; buf_capacity=%d", bcol, count, length, capacity));    //NOI18N
         }
-        return new String(buf, bcol, count) + newline;
+        return new String(chars(), bcol, count) + newline;
     }
     
     public void setCharacterAttribute(int bcol, int ecol,
             int value, boolean on) {
+        expand();
         // HACK: value is the ANSI code, haveAttributes takes out own
         // compact encoding, but it only checks for 0 so it's OK.
         if (!haveAttributes(value))
@@ -100,6 +100,7 @@ interface Ops {
 
     public void logUnrecognizedSequence(String toString);
     public void logCompletedSequence(String toString);
+    public boolean isSequenceLogging();	// whether the above are of any use
 
     public void op_send_chars(String sequence);
 
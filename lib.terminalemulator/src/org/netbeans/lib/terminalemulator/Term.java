@@ -235,6 +235,8 @@ public class Term extends JComponent implements Accessible {
     // Stuff to control how often RegionManager.cull() gets called
     private int cull_count = 0;
     private static final int CULL_FREQUENCY = 50;
+    // Lines below this index have been compacted, see limit_lines()
+    private int compactedx = 0;
     // 'firsta' is the absolute line number of the line at 'lines[0]'.
     private int firsta = 0;
     // chars gone by in lines that winked out of history
@@ -396,7 +398,7 @@ public class Term extends JComponent implements Accessible {
                 n_putchar++;
                 putc_work(c);
             }
-            possibly_repaint(true);
+            possibly_repaint_output();
 
         // pavel.buzek@czech.sun.com put this as a fix to speed up
         // StreamTerm on windows. This will make raw mode not work,
@@ -412,10 +414,13 @@ public class Term extends JComponent implements Accessible {
             {
                 n_putchars++;
                 for (int bx = 0; bx < count; bx++) {
-                    putc_work(buf[offset + bx]);
+                    interp.processChar(buf[offset + bx]);
+                    possiblyHScroll();
                 }
+                // one caret update for the whole batch, see putc_work()
+                screen.possiblyUpdateCaretText();
             }
-            possibly_repaint(true);
+            possibly_repaint_output();
         }
 
 	@Override
@@ -1457,6 +1462,19 @@ public class Term extends JComponent implements Accessible {
     @SuppressWarnings("ValueOfIncrementOrDecrementUsed")
     private void limit_lines() {
 
+        // Lines that have scrolled out of view, one at a time or in bulk
+        // through resizing, paging or clearing, are unlikely to be looked
+        // at or modified again, keep them compact.
+        // Lines scrolled back into view may have been modified, so they
+        // get compacted again once they leave.
+        int endx = Math.min(st.firstx, buf.nlines());
+        if (compactedx > endx) {
+            compactedx = endx;
+        }
+        for (; compactedx < endx; compactedx++) {
+            buf.lineAt(compactedx).compact();
+        }
+
         /*
          * Make sure we don't exceed the buffer size limit historySize.
          * This implements the vanishing of lines from the beginning of history.
@@ -1479,6 +1497,7 @@ public class Term extends JComponent implements Accessible {
 
             // relocate all row indices
             st.adjust(-toremove);
+            compactedx = Math.max(compactedx - toremove, 0);
 
             firsta += toremove;
 
@@ -4387,6 +4406,11 @@ public class Term extends JComponent implements Accessible {
             Term.this.logCompletedSequence(sequence);
         }
 
+        @Override
+        public boolean isSequenceLogging() {
+            return Term.this.isSequenceLogging();
+        }
+
         @Override
         public void op_send_chars(String sequence) {
             Term.this.sendChars(sequence.toCharArray(), 0, sequence.length());
@@ -4792,6 +4816,43 @@ public class Term extends JComponent implements Accessible {
         repaint(adjust_scrollbar);
     }
 
+    /**
+     * Like possibly_repaint(true) but for use after each chunk of output.
+     * <p>
+     * Running applications are usually line buffered so putChars() gets
+     * called once per line (see the discussion in repaint()). Adjusting
+     * the scrollbar and asking for a repaint more often than every
+     * OUTPUT_REPAINT_DELAY msec only costs time, so chunks arriving in
+     * between are picked up by a single timer driven repaint.
+     */
+    private void possibly_repaint_output() {
+        if (!refresh_enabled) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (now - last_output_repaint >= OUTPUT_REPAINT_DELAY) {
+            last_output_repaint = now;
+            repaint(true);
+            return;
+        }
+        if (output_repaint_timer == null) {
+            output_repaint_timer = new javax.swing.Timer(OUTPUT_REPAINT_DELAY, new ActionListener() {
+                @Override
+                public void actionPerformed(ActionEvent e) {
+                    last_output_repaint = System.currentTimeMillis();
+                    possibly_repaint(true);
+                }
+            });
+            output_repaint_timer.setRepeats(false);
+        }
+        if (!output_repaint_timer.isRunning()) {
+            output_repaint_timer.start();
+        }
+    }
+    private static final int OUTPUT_REPAINT_DELAY = 20;
+    private long last_output_repaint;
+    private javax.swing.Timer output_repaint_timer;
+
     /**
      * Model and or view settings have changed, redraw everything.
      * @param adjust_scrollbar
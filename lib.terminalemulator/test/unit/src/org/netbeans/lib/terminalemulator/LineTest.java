@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.netbeans.lib.terminalemulator;
+
+import org.netbeans.junit.NbTestCase;
+
+/**
+ * Tests compacting of lines that scrolled into history.
+ */
+public class LineTest extends NbTestCase {
+
+    public LineTest(String testName) {
+        super(testName);
+    }
+
+    private static Line line(Term term, String text, int[] attrs) {
+        Line l = new Line();
+        for (int cx = 0; cx < text.length(); cx++) {
+            l.setCharAt(term, text.charAt(cx), cx, attrs == null ? 0 : attrs[cx], 0);
+        }
+        return l;
+    }
+
+    private static void assertLine(Line l, String text, int[] attrs) {
+        assertEquals(text.length(), l.length());
+        assertEquals(text, l.stringBuffer().toString());
+        assertEquals(text, l.text(0, text.length() - 1));
+        assertEquals(text, new String(l.getChars(new char[text.length()])));
+        for (int cx = 0; cx < text.length(); cx++) {
+            assertEquals(text.charAt(cx), l.charAt(cx));
+        }
+        StringBuffer sb = new StringBuffer();
+        l.accumulateInto(1, text.length() - 2, sb);
+        assertEquals(text.substring(1, text.length() - 1), sb.toString());
+        assertEquals(attrs != null, l.hasAttributes());
+        if (attrs != null) {
+            int[] a = l.attrArray();
+            for (int cx = 0; cx < text.length(); cx++) {
+                assertEquals("attribute at " + cx, attrs[cx], a[cx]);
+            }
+        }
+    }
+
+    public void testLatin1RunEncoded() {
+        Term term = new Term();
+        String text = "make: Entering directory \u00e9t\u00e9";
+        int[] attrs = new int[text.length()];
+        for (int cx = 0; cx < attrs.length; cx++) {
+            attrs[cx] = cx < 5 ? 0x21 : 0x3;
+        }
+        Line l = line(term, text, attrs);
+        l.compact();
+        assertEquals("slack dropped", l.length(), l.capacity());
+        assertLine(l, text, attrs);
+        l.compact();
+        assertLine(l, text, attrs);
+
+        // editing restores the full form
+        l.setCharAt(term, 'M', 0, 0x21, 0);
+        l.insertCharAt(term, '!', text.length(), 0x5);
+        text = "M" + text.substring(1) + "!";
+        int[] nattrs = new int[text.length()];
+        System.arraycopy(attrs, 0, nattrs, 0, attrs.length);
+        nattrs[attrs.length] = 0x5;
+        assertLine(l, text, nattrs);
+        l.compact();
+        assertLine(l, text, nattrs);
+    }
+
+    public void testNonLatin1Trimmed() {
+        Term term = new Term();
+        String text = "\u4e2d\u6587 \u0161\u0165\u017e abc";
+        int[] attrs = new int[text.length()];
+        for (int cx = 0; cx < attrs.length; cx++) {
+            attrs[cx] = cx % 2 == 0 ? 0x11 : 0x12;	// no runs to encode
+        }
+        Line l = line(term, text, attrs);
+        l.compact();
+        assertEquals("slack dropped", l.length(), l.capacity());
+        assertLine(l, text, attrs);
+
+        l.deleteCharAt(0);
+        text = text.substring(1);
+        int[] nattrs = new int[text.length()];
+        System.arraycopy(attrs, 1, nattrs, 0, nattrs.length);
+        assertLine(l, text, nattrs);
+        l.setCharAt(term, '\u6587', text.length() + 2, 0x13, 0);
+        l.compact();
+        assertEquals(text.length() + 3, l.length());
+        assertEquals('\u6587', l.charAt(text.length() + 2));
+        assertEquals(0x13, l.attrArray()[text.length() + 2]);
+    }
+
+    public void testNoAttributes() {
+        Term term = new Term();
+        String text = "plain text";
+        Line l = line(term, text, null);
+        l.compact();
+        assertLine(l, text, null);
+        l.setCharacterAttribute(0, 4, 1, true);
+        assertTrue(l.hasAttributes());
+        assertEquals(text, l.stringBuffer().toString());
+    }
+
+    public void testHistoryLinesCompacted() {
+        Term term = new Term();
+        term.setEmulation("ansi"); // NOI18N
+        term.setHistorySize(1000);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            sb.append("\033[1;3").append(i % 8).append("mline\033[0m ").append(i).append("\r\n"); // NOI18N
+        }
+        char[] data = sb.toString().toCharArray();
+        term.putChars(data, 0, data.length);
+        term.flush();
+        // shrinking the window moves several lines into history at once
+        term.setRowsColumns(10, 80);
+        char[] more = "done\r\n".toCharArray(); // NOI18N
+        term.putChars(more, 0, more.length);
+        term.flush();
+
+        Buffer buf = term.buf();
+        int history = term.getHistoryBuffSize();
+        assertTrue(history > 400);
+        boolean last = false;
+        for (int lx = 0; lx < history; lx++) {
+            Line l = buf.lineAt(lx);
+            assertEquals("line " + lx + " compact", l.length(), l.capacity());
+            last |= l.stringBuffer().toString().equals("line 490"); // NOI18N
+        }
+        assertTrue("text kept", last);
+    }
+}
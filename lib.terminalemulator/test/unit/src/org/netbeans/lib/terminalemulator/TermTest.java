@@ -56,6 +56,36 @@ public class TermTest extends NbTestCase {
             throw new AssertionFailedErrorException("JellyTools compatibility conflict, please contact QA or any JellyTools developer.", e);
         }
     }
+
+    /** Replays a VT100 stream typical for build output (colors, progress
+     * lines redrawn with CR and erase to end of line) in chunks and reports
+     * the throughput.
+     */
+    public void testReplayThroughput() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            sb.append("\033[1;3").append(i % 8).append("mcompile\033[0m ").append(i); // NOI18N
+            sb.append(" src/org/netbeans/Some").append(i % 100).append(".java\r\n"); // NOI18N
+            if (i % 100 == 0) {
+                sb.append("progress ").append(i / 100).append("%\r\033[K"); // NOI18N
+            }
+        }
+        char[] data = sb.toString().toCharArray();
+
+        Term term = new Term();
+        term.setEmulation("ansi"); // NOI18N
+        long start = System.nanoTime();
+        for (int off = 0; off < data.length; off += 1024) {
+            term.putChars(data, off, Math.min(1024, data.length - off));
+        }
+        long time = System.nanoTime() - start;
+        term.flush();
+
+        assertEquals("compile 19999 src/org/netbeans/Some99.java", // NOI18N
+                term.getRowText(term.getCursorRow() - 1).trim());
+        log(String.format("%d chars in %d ms, %.1f MB/s", data.length, time / 1000000, // NOI18N
+                data.length * 2 / 1e6 / (time / 1e9)));
+    }
     
     
 }
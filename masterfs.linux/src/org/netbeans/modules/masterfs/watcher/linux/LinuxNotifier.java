@@ -74,7 +74,7 @@ public final class LinuxNotifier extends Notifier<LinuxNotifier.LKey> {
 
     final InotifyImpl IMPL;
     int fd;
-    private ByteBuffer buff = ByteBuffer.allocateDirect(4096);
+    private ByteBuffer buff = ByteBuffer.allocateDirect(16384);
 
     // An array would serve nearly as well
     private Map<Integer, LKey> map = new HashMap<Integer, LKey>();
@@ -146,10 +146,36 @@ public final class LinuxNotifier extends Notifier<LinuxNotifier.LKey> {
         if (key == null) { /* wd == -1 -> Queue overflow */
             return null;
         }
+        skipSameWatch(wd);
         
         return key.path;
     }
 
+    /**
+     * Consumes events for the same watch descriptor that are already
+     * read into the buffer. They all map to the same folder, so
+     * reporting it once is enough. Stops at the first incomplete event
+     * or event for another descriptor; never blocks.
+     */
+    private void skipSameWatch(int wd) {
+        int skipped = 0;
+        while (buff.remaining() >= 16) {
+            int pos = buff.position();
+            int nextLen = buff.getInt(pos + 12);
+            if (buff.remaining() < 16 + nextLen || buff.getInt(pos) != wd) {
+                break;
+            }
+            if ((buff.getInt(pos + 4) & InotifyImpl.IN_IGNORED) == InotifyImpl.IN_IGNORED) {
+                break;
+            }
+            buff.position(pos + 16 + nextLen);
+            skipped++;
+        }
+        if (skipped > 0) {
+            LOG.log(Level.FINEST, "Coalesced {0} events for watch {1}", new Object[]{skipped, wd}); //NOI18N
+        }
+    }
+
 
     static class LKey {
         int id;
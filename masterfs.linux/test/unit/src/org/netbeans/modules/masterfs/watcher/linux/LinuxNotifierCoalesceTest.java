@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.netbeans.modules.masterfs.watcher.linux;
+
+import java.io.File;
+import org.netbeans.junit.NbTestCase;
+import org.openide.util.Utilities;
+
+/**
+ * Checks that a burst of inotify events for one watch is reported once.
+ */
+public class LinuxNotifierCoalesceTest extends NbTestCase {
+
+    public LinuxNotifierCoalesceTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        clearWorkDir();
+    }
+
+    public void testRepeatedEventsForSameWatchDeliveredOnce() throws Exception {
+        if (Utilities.getOperatingSystem() != Utilities.OS_LINUX) {
+            System.out.println("Skipping linux-only test: " + getName());
+            return;
+        }
+
+        File busy = new File(getWorkDir(), "busy");
+        busy.mkdir();
+        File quiet = new File(getWorkDir(), "quiet");
+        quiet.mkdir();
+
+        LinuxNotifier notifier = new LinuxNotifier();
+        notifier.start();
+        notifier.addWatch(busy.getPath());
+        notifier.addWatch(quiet.getPath());
+
+        // distinct names, so the kernel does not merge the events itself
+        for (int i = 0; i < 50; i++) {
+            new File(busy, "file" + i + ".txt").createNewFile();
+        }
+        new File(quiet, "marker.txt").createNewFile();
+        new File(busy, "last.txt").createNewFile();
+
+        assertEquals("Burst reported once", busy.getPath(), notifier.nextEvent());
+        assertEquals("Next watch is not swallowed", quiet.getPath(), notifier.nextEvent());
+        assertEquals("Later event for first watch still reported", busy.getPath(), notifier.nextEvent());
+    }
+}
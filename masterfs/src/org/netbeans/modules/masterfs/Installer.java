@@ -18,6 +18,7 @@
  */
 package org.netbeans.modules.masterfs;
 
+import org.netbeans.modules.masterfs.filebasedfs.children.ChildrenSnapshot;
 import org.netbeans.modules.masterfs.watcher.Watcher;
 import org.openide.modules.OnStart;
 import org.openide.modules.OnStop;
@@ -36,6 +37,7 @@ public final class Installer implements Runnable {
         @Override
         public void run() {
             Watcher.shutdown();
+            ChildrenSnapshot.store();
         }
     }
 }
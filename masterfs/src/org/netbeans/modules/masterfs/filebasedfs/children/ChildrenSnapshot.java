@@ -0,0 +1,222 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.netbeans.modules.masterfs.filebasedfs.children;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.netbeans.modules.masterfs.filebasedfs.naming.FileNaming;
+import org.openide.modules.Places;
+
+/**
+ * Snapshot of folder listings kept across IDE sessions. At shutdown the
+ * children of every fully listed folder are written together with the
+ * folder's modification time. During the next session the first listing
+ * of such a folder is served from the snapshot if the folder's time stamp
+ * has not changed, saving the directory read and a stat call per child.
+ * The snapshot is off unless
+ * <code>-Dorg.netbeans.modules.masterfs.children.snapshot=true</code> is set.
+ */
+public final class ChildrenSnapshot {
+    private static final Logger LOG = Logger.getLogger(ChildrenSnapshot.class.getName());
+    static final String ENABLED = "org.netbeans.modules.masterfs.children.snapshot"; //NOI18N
+    static final String MAX_NAMES = "org.netbeans.modules.masterfs.children.snapshot.limit"; //NOI18N
+    private static final String CACHE_FILE = "masterfs/children.snapshot"; //NOI18N
+    private static final int VERSION = 1;
+    /**
+     * Folders modified less than this before they were listed are not
+     * stored, coarse time stamps would not reveal a change made right after
+     * the listing.
+     */
+    static final long GRANULARITY = 2000;
+
+    /** @GuardedBy("ChildrenSnapshot.class") */
+    private static Map<String, Entry> loaded;
+    /** @GuardedBy("ChildrenSnapshot.class") */
+    private static final Map<ChildrenSupport, FileNaming> listed = new WeakHashMap<ChildrenSupport, FileNaming>();
+
+    private ChildrenSnapshot() {
+    }
+
+    static final class Entry {
+        final long timeStamp;
+        final String[] names;
+        final boolean[] folders;
+
+        Entry(long timeStamp, String[] names, boolean[] folders) {
+            this.timeStamp = timeStamp;
+            this.names = names;
+            this.folders = folders;
+        }
+    }
+
+    /**
+     * Removes the snapshot of given folder and returns it if the folder
+     * has not been modified since the snapshot was taken.
+     *
+     * @param folder folder to be listed
+     * @return the snapshot or <code>null</code>
+     */
+    static Entry take(File folder) {
+        if (!Boolean.getBoolean(ENABLED)) {
+            return null;
+        }
+        Entry e;
+        synchronized (ChildrenSnapshot.class) {
+            if (loaded == null) {
+                loaded = load();
+            }
+            if (loaded.isEmpty()) {
+                return null;
+            }
+            e = loaded.remove(folder.getPath());
+        }
+        if (e == null || folder.lastModified() != e.timeStamp) {
+            return null;
+        }
+        return e;
+    }
+
+    /** Remembers folder whose children have all been listed. */
+    static void listed(ChildrenSupport children, FileNaming folder) {
+        if (!Boolean.getBoolean(ENABLED)) {
+            return;
+        }
+        synchronized (ChildrenSnapshot.class) {
+            listed.put(children, folder);
+        }
+    }
+
+    /** Writes snapshot of all fully listed folders. Called at shutdown. */
+    public static void store() {
+        if (!Boolean.getBoolean(ENABLED) || Places.getUserDirectory() == null) {
+            return;
+        }
+        final int maxNames = Integer.getInteger(MAX_NAMES, 500000);
+        List<Map.Entry<ChildrenSupport, FileNaming>> all;
+        synchronized (ChildrenSnapshot.class) {
+            all = new ArrayList<Map.Entry<ChildrenSupport, FileNaming>>(listed.entrySet());
+        }
+        File f = Places.getCacheSubfile(CACHE_FILE);
+        File tmp = new File(f.getPath() + ".new"); //NOI18N
+        int folders = 0;
+        int names = 0;
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)));
+            try {
+                out.writeInt(VERSION);
+                for (Map.Entry<ChildrenSupport, FileNaming> e : all) {
+                    ChildrenSupport children = e.getKey();
+                    if (children == null) {
+                        continue;
+                    }
+                    long timeStamp = children.getTimeStamp();
+                    Set<FileNaming> existing = children.getCachedChildren();
+                    if (timeStamp == 0 || names + existing.size() > maxNames) {
+                        continue;
+                    }
+                    out.writeBoolean(true);
+                    out.writeUTF(e.getValue().getFile().getPath());
+                    out.writeLong(timeStamp);
+                    out.writeInt(existing.size());
+                    for (FileNaming fn : existing) {
+                        out.writeUTF(fn.getName());
+                        out.writeBoolean(fn.isDirectory());
+                    }
+                    folders++;
+                    names += existing.size();
+                }
+                out.writeBoolean(false);
+            } finally {
+                out.close();
+            }
+            if (f.exists() && !f.delete()) {
+                LOG.log(Level.FINE, "Cannot delete {0}", f); //NOI18N
+            }
+            if (!tmp.renameTo(f)) {
+                LOG.log(Level.FINE, "Cannot rename {0}", tmp); //NOI18N
+                tmp.delete();
+            }
+            LOG.log(Level.FINE, "Stored {0} folders with {1} children", new Object[]{folders, names}); //NOI18N
+        } catch (IOException ex) {
+            LOG.log(Level.INFO, "Cannot store folder snapshot", ex); //NOI18N
+            tmp.delete();
+        }
+    }
+
+    /** Forgets loaded snapshot and listed folders, as in a new session. */
+    static synchronized void reset() {
+        loaded = null;
+        listed.clear();
+    }
+
+    private static Map<String, Entry> load() {
+        Map<String, Entry> res = new HashMap<String, Entry>();
+        if (Places.getUserDirectory() == null) {
+            return res;
+        }
+        File f = Places.getCacheSubfile(CACHE_FILE);
+        if (!f.isFile()) {
+            return res;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f)));
+            try {
+                if (in.readInt() != VERSION) {
+                    return res;
+                }
+                while (in.readBoolean()) {
+                    String path = in.readUTF();
+                    long timeStamp = in.readLong();
+                    int cnt = in.readInt();
+                    String[] names = new String[cnt];
+                    boolean[] folders = new boolean[cnt];
+                    for (int i = 0; i < cnt; i++) {
+                        names[i] = in.readUTF();
+                        folders[i] = in.readBoolean();
+                    }
+                    res.put(path, new Entry(timeStamp, names, folders));
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException ex) {
+            LOG.log(Level.INFO, "Cannot read folder snapshot", ex); //NOI18N
+            res.clear();
+        }
+        // the snapshot is valid for one session only
+        f.delete();
+        LOG.log(Level.FINE, "Loaded snapshot of {0} folders", res.size()); //NOI18N
+        return res;
+    }
+}
@@ -41,6 +41,8 @@ public class ChildrenSupport {
     private Set<FileNaming> notExistingChildren;
     private Set<FileNaming> existingChildren;
     private int status = ChildrenSupport.NO_CHILDREN_CACHED;
+    /** time stamp of the folder when it was last listed, 0 if unknown */
+    private long timeStamp;
     private static final Mutex.Privileged mutexPrivileged = new Mutex.Privileged();
     private static final Mutex mutex = new Mutex(mutexPrivileged);
 
@@ -146,6 +148,14 @@ public class ChildrenSupport {
         return retVal;
     }
 
+    /**
+     * @return time stamp of the folder taken before its children were
+     * listed or <code>0</code> if unknown
+     */
+    synchronized long getTimeStamp() {
+        return isStatus(ChildrenSupport.ALL_CHILDREN_CACHED) ? timeStamp : 0;
+    }
+
     @Override
     public String toString() {
         return getExisting(false).toString();
@@ -234,14 +244,32 @@ public class ChildrenSupport {
 
         final File folder = folderName.getFile();
         assert folderName.getFile().getAbsolutePath().equals(folderName.toString());
+        final boolean initial = !ignoreCache && !isStatus(ChildrenSupport.ALL_CHILDREN_CACHED);
         
         class IOJob implements Runnable {
             boolean folderExists;
             Set<FileNaming> newChildren;
+            long timeStamp;
             @Override
             public void run() {
+                final ChildrenSnapshot.Entry snapshot = initial ? ChildrenSnapshot.take(folder) : null;
+                if (snapshot != null) {
+                    newChildren = new LinkedHashSet<FileNaming>();
+                    for (int i = 0; i < snapshot.names.length; i++) {
+                        final File child = new File(folder, snapshot.names[i]);
+                        final FileInfo fInfo = new FileInfo(child, 1, snapshot.folders[i]);
+                        if (fInfo.isConvertibleToFileObject()) {
+                            newChildren.add(NamingFactory.fromFile(folderName, fInfo, ignoreCache, true));
+                        }
+                    }
+                    timeStamp = snapshot.timeStamp;
+                    return;
+                }
+                final long now = System.currentTimeMillis();
+                final long lastModified = folder.lastModified();
                 final File[] children = folder.listFiles();
                 if (children != null) {
+                    timeStamp = now - lastModified > ChildrenSnapshot.GRANULARITY ? lastModified : 0;
                     newChildren = new LinkedHashSet<FileNaming>();
                     for (int i = 0; i < children.length; i++) {
                         final FileInfo fInfo = new FileInfo(children[i], 1);
@@ -265,6 +293,10 @@ public class ChildrenSupport {
             return null;
         }
 
+        timeStamp = job.timeStamp;
+        if (timeStamp != 0) {
+            ChildrenSnapshot.listed(this, folderName);
+        }
         if (job.newChildren == null) {
             if (job.folderExists) { // #150009 - children == null -> folder does not exists, or an I/O error occurs
                 // folder.listFiles() failed with I/O exception - do not remove children
@@ -95,8 +95,17 @@ public final class NamingFactory {
      */
     public static FileNaming fromFile(final FileNaming parentFn, final File file,
             boolean ignoreCache, boolean canonicalName) {
+        return fromFile(parentFn, new FileInfo(file), ignoreCache, canonicalName);
+    }
 
-        FileInfo info = new FileInfo(file);
+    /**
+     * Variant of {@link #fromFile(FileNaming, File, boolean, boolean)} for
+     * callers that already know (some of) the file's attributes, e.g.
+     * whether it is a directory. Such known attributes are not queried
+     * from the disk again.
+     */
+    public static FileNaming fromFile(final FileNaming parentFn, final FileInfo info,
+            boolean ignoreCache, boolean canonicalName) {
         List<FileInfo> checkDirs = new ArrayList<FileInfo>();
         for (;;) {
             for (FileInfo fileInfo : checkDirs) {
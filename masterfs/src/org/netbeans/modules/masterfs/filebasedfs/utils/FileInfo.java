@@ -58,6 +58,11 @@ public final class FileInfo {
         this.file = file;
     }
 
+    public FileInfo(final File file, int exists, boolean isDirectory) {
+        this(file, exists);
+        this.isDirectory = isDirectory ? 1 : 0;
+    }
+
     public FileInfo(final FileInfo parent, final File file) {
         this (file);
         this.parent = parent;
@@ -316,11 +316,20 @@ public final class Watcher extends BaseAnnotationProvider {
         }
 
         @Override public void run() {
+            // last folder enqueued, bursts of events usually hit the same one
+            String lastPath = null;
+            FileObject lastFo = null;
             while (!shutdown) {
                 try {
                     clearQueue();
                     String path = NotifierAccessor.getDefault().nextEvent(impl);
                     LOG.log(Level.FINEST, "nextEvent: {0}", path); 
+                    if (path != null && path.equals(lastPath) && isPending(lastFo)) {
+                        // still waiting for refresh, no need to look it up again
+                        continue;
+                    }
+                    lastPath = null;
+                    lastFo = null;
                     if (path == null) { // all dirty
                         Set<FileObject> set = new HashSet<FileObject>();
                         synchronized (LOCK) {
@@ -345,6 +354,8 @@ public final class Watcher extends BaseAnnotationProvider {
                                 NotifierKeyRef<KEY> kr = new NotifierKeyRef<KEY>(fo, null, null, impl);
                                 if (getReferences().contains(kr)) {
                                     enqueue(fo);
+                                    lastPath = path;
+                                    lastFo = fo;
                                 }
                             }
                         }
@@ -432,6 +443,12 @@ public final class Watcher extends BaseAnnotationProvider {
         }
     }
 
+    private boolean isPending(FileObject fo) {
+        synchronized(lock) {
+            return pending != null && pending.contains(fo);
+        }
+    }
+
     private void enqueueAll(Set<FileObject> fos) {
         assert fos != null;
         assert !fos.contains(null) : "No nulls";
@@ -0,0 +1,203 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.netbeans.modules.masterfs.filebasedfs.children;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.netbeans.junit.NbTestCase;
+import org.netbeans.modules.masterfs.filebasedfs.naming.FileNaming;
+import org.netbeans.modules.masterfs.filebasedfs.naming.NamingFactory;
+
+/**
+ * Tests of folder listings persisted by {@link ChildrenSnapshot}.
+ */
+public class ChildrenSnapshotTest extends NbTestCase {
+    /** time stamp old enough for the folder to be stored */
+    private long old;
+    /** listed folders are only stored while their children support lives */
+    private final List<ChildrenSupport> keepAlive = new ArrayList<ChildrenSupport>();
+
+    public ChildrenSnapshotTest(String testName) {
+        super(testName);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        clearWorkDir();
+        System.setProperty("netbeans.user", getWorkDirPath());
+        System.setProperty(ChildrenSnapshot.ENABLED, "true");
+        System.getProperties().remove(ChildrenSnapshot.MAX_NAMES);
+        ChildrenSnapshot.reset();
+        old = (System.currentTimeMillis() - 10 * ChildrenSnapshot.GRANULARITY) / 1000 * 1000;
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        System.getProperties().remove(ChildrenSnapshot.ENABLED);
+        System.getProperties().remove(ChildrenSnapshot.MAX_NAMES);
+        ChildrenSnapshot.reset();
+    }
+
+    public void testStoreAndTake() throws Exception {
+        File folder = createFolder("folder", "a.txt", "b.txt", "sub/");
+        list(folder);
+
+        ChildrenSnapshot.store();
+        ChildrenSnapshot.reset();
+
+        ChildrenSnapshot.Entry e = ChildrenSnapshot.take(folder);
+        assertNotNull("Snapshot of unchanged folder used", e);
+        assertEquals(old, e.timeStamp);
+        assertEquals(Arrays.asList("a.txt", "b.txt", "sub"), sorted(e));
+        assertNull("Snapshot is taken only once", ChildrenSnapshot.take(folder));
+        assertFalse("Snapshot is valid for one session only", snapshotFile().exists());
+    }
+
+    public void testModifiedFolderIgnored() throws Exception {
+        File folder = createFolder("folder", "a.txt");
+        list(folder);
+
+        ChildrenSnapshot.store();
+        ChildrenSnapshot.reset();
+
+        new File(folder, "b.txt").createNewFile();
+        folder.setLastModified(old + 5000);
+        assertNull("Changed time stamp invalidates the snapshot", ChildrenSnapshot.take(folder));
+    }
+
+    public void testRecentlyModifiedFolderNotStored() throws Exception {
+        File folder = createFolder("folder", "a.txt");
+        folder.setLastModified(System.currentTimeMillis());
+        list(folder);
+
+        ChildrenSnapshot.store();
+        ChildrenSnapshot.reset();
+
+        assertNull("Folder modified within granularity is not stored", ChildrenSnapshot.take(folder));
+    }
+
+    public void testLimit() throws Exception {
+        File first = createFolder("first", "a.txt", "b.txt");
+        File second = createFolder("second", "c.txt", "d.txt");
+        list(first);
+        list(second);
+
+        System.setProperty(ChildrenSnapshot.MAX_NAMES, "3");
+        ChildrenSnapshot.store();
+        ChildrenSnapshot.reset();
+
+        int stored = 0;
+        if (ChildrenSnapshot.take(first) != null) {
+            stored++;
+        }
+        if (ChildrenSnapshot.take(second) != null) {
+            stored++;
+        }
+        assertEquals("Only folders within the limit are stored", 1, stored);
+    }
+
+    public void testDisabled() throws Exception {
+        File folder = createFolder("folder", "a.txt");
+        System.getProperties().remove(ChildrenSnapshot.ENABLED);
+        list(folder);
+
+        ChildrenSnapshot.store();
+        assertFalse("Nothing written when disabled", snapshotFile().exists());
+
+        System.setProperty(ChildrenSnapshot.ENABLED, "true");
+        list(createFolder("other", "b.txt"));
+        ChildrenSnapshot.store();
+        ChildrenSnapshot.reset();
+        System.getProperties().remove(ChildrenSnapshot.ENABLED);
+        assertNull("Snapshot not used when disabled", ChildrenSnapshot.take(folder));
+        assertTrue("Snapshot not even read", snapshotFile().exists());
+    }
+
+    public void testSnapshotNamingsMatchListFiles() throws Exception {
+        File folder = createFolder("folder", "a.txt", "b", "sub/", "sub2/");
+        list(folder);
+
+        ChildrenSnapshot.store();
+        ChildrenSnapshot.reset();
+
+        ChildrenSupport cs = new ChildrenSupport();
+        Set<FileNaming> fromSnapshot = listWith(cs, folder);
+        assertFalse("Snapshot consumed", snapshotFile().exists());
+
+        List<String> expected = new ArrayList<String>();
+        for (File f : folder.listFiles()) {
+            expected.add(f.getName() + (f.isDirectory() ? "/ FolderName" : " FileName"));
+        }
+        Collections.sort(expected);
+        List<String> actual = new ArrayList<String>();
+        for (FileNaming fn : fromSnapshot) {
+            assertEquals(folder, fn.getParent().getFile());
+            assertEquals(fn.isDirectory(), !fn.isFile());
+            actual.add(fn.getName() + (fn.isDirectory() ? "/ " : " ") + fn.getClass().getSimpleName());
+        }
+        Collections.sort(actual);
+        assertEquals(expected, actual);
+        assertTrue("Time stamp kept for the next store", cs.getTimeStamp() != 0);
+    }
+
+    private File createFolder(String name, String... children) throws Exception {
+        File folder = new File(getWorkDir(), name);
+        assertTrue(folder.mkdir());
+        for (String ch : children) {
+            if (ch.endsWith("/")) {
+                assertTrue(new File(folder, ch.substring(0, ch.length() - 1)).mkdir());
+            } else {
+                assertTrue(new File(folder, ch).createNewFile());
+            }
+        }
+        assertTrue(folder.setLastModified(old));
+        return folder;
+    }
+
+    private void list(File folder) {
+        ChildrenSupport cs = new ChildrenSupport();
+        listWith(cs, folder);
+        keepAlive.add(cs);
+    }
+
+    private static Set<FileNaming> listWith(ChildrenSupport cs, File folder) {
+        FileNaming folderName = NamingFactory.fromFile(folder);
+        Runnable[] task = new Runnable[1];
+        assertNull(cs.getChildren(folderName, false, task));
+        task[0].run();
+        Set<FileNaming> res = cs.getChildren(folderName, false, task);
+        assertNotNull(res);
+        return res;
+    }
+
+    private static List<String> sorted(ChildrenSnapshot.Entry e) {
+        List<String> res = new ArrayList<String>(Arrays.asList(e.names));
+        Collections.sort(res);
+        return res;
+    }
+
+    private File snapshotFile() {
+        return new File(new File(new File(new File(getWorkDirPath(), "var"), "cache"), "masterfs"), "children.snapshot");
+    }
+}
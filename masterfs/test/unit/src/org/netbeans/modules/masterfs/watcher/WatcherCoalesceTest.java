@@ -0,0 +1,170 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.netbeans.modules.masterfs.watcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import org.netbeans.junit.MockServices;
+import org.netbeans.junit.NbTestCase;
+import org.netbeans.modules.masterfs.providers.Notifier;
+import org.openide.filesystems.FileChangeAdapter;
+import org.openide.filesystems.FileEvent;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+import org.openide.util.Lookup;
+
+/** Repeated events for one folder lead to a single refresh.
+ */
+public class WatcherCoalesceTest extends NbTestCase {
+    private TestNotifier notify;
+    private L listener;
+    private Watcher watcher;
+    private RefreshCounter refreshes;
+
+    public WatcherCoalesceTest(String s) {
+        super(s);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        clearWorkDir();
+        MockServices.setServices(TestNotifier.class);
+        listener = new L();
+        watcher = Lookup.getDefault().lookup(Watcher.class);
+        notify = Lookup.getDefault().lookup(TestNotifier.class);
+        notify.start();
+        refreshes = new RefreshCounter();
+        Watcher.LOG.setLevel(Level.FINEST);
+        Watcher.LOG.addHandler(refreshes);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        Watcher.LOG.removeHandler(refreshes);
+    }
+
+    public void testRepeatedEventsRefreshOnce() throws Exception {
+        FileObject root = FileUtil.toFileObject(getWorkDir());
+        FileObject folder = root.createFolder("dir");
+        File dir = FileUtil.toFile(folder);
+
+        assertEquals("Empty", 0, folder.getChildren().length);
+        folder.addFileChangeListener(listener);
+
+        new File(dir, "first.txt").createNewFile();
+        for (int i = 0; i < 50; i++) {
+            notify.event.offer(dir.getPath());
+        }
+        listener.assertEvents("One event delivered", 1, 5000);
+        refreshes.assertRefreshed("Burst refreshed once", folder, 1, 5000);
+
+        // the folder is no longer pending, so the same path must not be skipped
+        new File(dir, "second.txt").createNewFile();
+        for (int i = 0; i < 3; i++) {
+            notify.event.offer(dir.getPath());
+        }
+        listener.assertEvents("Second event delivered", 2, 5000);
+        refreshes.assertRefreshed("Refreshed again", folder, 2, 5000);
+    }
+
+    private static final class L extends FileChangeAdapter {
+        private int cnt;
+
+        @Override
+        public synchronized void fileDataCreated(FileEvent fe) {
+            cnt++;
+            notifyAll();
+        }
+
+        private synchronized void assertEvents(
+            String msg, int cnt, int timeOut
+        ) throws InterruptedException {
+            long until = System.currentTimeMillis() + timeOut;
+            while (this.cnt < cnt && System.currentTimeMillis() < until) {
+                wait(timeOut);
+            }
+            assertEquals(msg, cnt, this.cnt);
+        }
+    }
+
+    private static final class RefreshCounter extends Handler {
+        private int cnt;
+        private int finished;
+
+        @Override
+        public synchronized void publish(LogRecord record) {
+            if ("Refreshing {0}".equals(record.getMessage())) {
+                FileObject fo = (FileObject) record.getParameters()[0];
+                if ("dir".equals(fo.getNameExt())) {
+                    cnt++;
+                }
+            } else if ("Refresh finished".equals(record.getMessage())) {
+                finished++;
+                notifyAll();
+            }
+        }
+
+        private synchronized void assertRefreshed(
+            String msg, FileObject folder, int cnt, int timeOut
+        ) throws InterruptedException {
+            long until = System.currentTimeMillis() + timeOut;
+            while (finished < cnt && System.currentTimeMillis() < until) {
+                wait(timeOut);
+            }
+            assertEquals(msg + " " + folder, cnt, this.cnt);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() throws SecurityException {
+        }
+    }
+
+    public static final class TestNotifier extends Notifier<Integer> {
+        final BlockingQueue<String> event = new LinkedBlockingQueue<String>();
+        private int cnt;
+
+        @Override
+        public Integer addWatch(String path) throws IOException {
+            return cnt++;
+        }
+
+        @Override
+        public void removeWatch(Integer key) throws IOException {
+        }
+
+        @Override
+        public String nextEvent() throws IOException, InterruptedException {
+            return event.take();
+        }
+
+        @Override
+        protected void start() throws IOException {
+            event.clear();
+        }
+    }
+}
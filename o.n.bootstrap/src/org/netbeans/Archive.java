@@ -286,6 +286,7 @@ class Archive implements Stamps.Updater {
     private static class Entry {
         private final int offset;
         private final ByteBuffer master;
+        private final int hash;
         
         Entry(ByteBuffer m) {
             master = m;
@@ -293,6 +294,10 @@ class Archive implements Stamps.Updater {
             int fLen = master.getInt(offset+2);
             int nLen = master.getChar(offset+6);
             if (fLen < 0) fLen = 0;
+            // absolute reads, no buffer duplicate per entry during parse
+            int code = 53*master.getChar(offset);
+            for (int i = offset+8; i < offset+8+nLen; i++) code = code*53 + master.get(i);
+            hash = code;
             master.position(offset+8+nLen+fLen);
         }
 
@@ -319,13 +324,7 @@ class Archive implements Stamps.Updater {
         }
         
         public @Override int hashCode() {
-            ByteBuffer clone = master.duplicate();
-            clone.position(offset+8);
-            clone.limit(offset+8+master.getChar(offset+6));
-
-            int code = 53*master.getChar(offset);
-            while (clone.hasRemaining()) code = code*53 + clone.get();
-            return code;
+            return hash;
         }
 
         public @Override boolean equals(Object obj) {
@@ -359,11 +358,8 @@ class Archive implements Stamps.Updater {
             if (source != e.master.getChar(e.offset)) return false;
             if (utf.length != e.master.getChar(e.offset+6)) return false;
 
-            ByteBuffer clone = e.master.duplicate();
-            clone.position(((Entry)o).offset+8);
-            
-            
-            for (byte b : utf) if (b != clone.get()) return false;
+            int pos = e.offset+8;
+            for (byte b : utf) if (b != e.master.get(pos++)) return false;
 
             return true;
         }
@@ -334,7 +334,7 @@ public class JarClassLoader extends ProxyClassLoader {
         private URL url;
         private ProtectionDomain pd;
         protected JarClassLoader jcl;
-        private static Map<String,Source> sources = new HashMap<String, Source>();
+        private static final Map<String,Source> sources = new HashMap<String, Source>();
         
         public Source(URL url) {
             this.url = url;
@@ -386,7 +386,9 @@ public class JarClassLoader extends ProxyClassLoader {
         protected void destroy() throws IOException {
             // relatively slow (millis instead of micros),
             // but rare enough to not matter
-            sources.values().remove(this);
+            synchronized (sources) {
+                sources.values().remove(this);
+            }
         }
         
         static Source create(File f, JarClassLoader jcl) throws IOException {
@@ -402,7 +404,9 @@ public class JarClassLoader extends ProxyClassLoader {
             // this way, there are currently 3 similar long Strings per
             // JarClassLoader instance - its URL, its identifier
             // in Archive.sources map and this one
-            sources.put(src.getPath(), src);
+            synchronized (sources) {
+                sources.put(src.getPath(), src);
+            }
             return src;
         }
 
@@ -1014,7 +1018,10 @@ public class JarClassLoader extends ProxyClassLoader {
                 }
                 throw new IOException(x);
             }
-            Source _src = Source.sources.get(jar);
+            Source _src;
+            synchronized (Source.sources) {
+                _src = Source.sources.get(jar);
+            }
             if (LOGGER.isLoggable(Level.FINE)) {
                 LOGGER.log(Level.FINER, "openConnection for {0} jar: {1} src: {2}", new Object[]{u, jar, _src});
             }
@@ -106,7 +106,7 @@ public final class JaveleonModule extends StandardModule {
         if(currentClassLoaders.containsKey(parent.getCodeNameBase()))
             return currentClassLoaders.get(parent.getCodeNameBase());
         else
-            return parent.getClassLoader();
+            return super.getParentLoader(parent);
     }
 
     @Override
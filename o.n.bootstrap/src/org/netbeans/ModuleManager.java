@@ -43,6 +43,7 @@ import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
@@ -50,6 +51,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 import java.util.jar.Manifest;
@@ -66,6 +68,7 @@ import org.openide.util.Exceptions;
 import org.openide.util.Lookup;
 import org.openide.util.Mutex;
 import org.openide.util.NbBundle;
+import org.openide.util.RequestProcessor;
 import org.openide.util.Task;
 import org.openide.util.TopologicalSortException;
 import org.openide.util.Union2;
@@ -103,6 +106,8 @@ public final class ModuleManager extends Modules {
     private final Map<Module,Set<Union2<Dependency,InvalidException>>> moduleProblemsWithoutNeeds = new HashMap<Module,Set<Union2<Dependency,InvalidException>>>(100);
     private final Map<Module,Set<Union2<Dependency,InvalidException>>> moduleProblemsWithNeeds = new HashMap<Module,Set<Union2<Dependency,InvalidException>>>(100);
     private static final Set<Union2<Dependency,InvalidException>> EMPTY_COLLECTION = Collections.<Union2<Dependency, InvalidException>>emptySet();
+    /** property with the number of threads bringing up module class loaders in {@link #enable}, 1 means sequential */
+    static final String CLASS_LOADER_THREADS = "org.netbeans.ModuleManager.classLoaderThreads"; // NOI18N
 
     // modules providing a given requires token; set may never be empty
     private final ProvidersOf providersOf = new ProvidersOf();
@@ -1200,6 +1205,8 @@ public final class ModuleManager extends Modules {
             boolean tryingClassLoaderUp = false;
             // If a failure due to package dep occurs, store it here.
             Dependency failedPackageDep = null;
+            // Class loaders created ahead in parallel, not yet consumed below.
+            Map<Module,IOException> preparedLoaders = createClassLoaders(toEnable);
             try {
                 ev.log(Events.PERF_START, "module preparation" ); // NOI18N
                 for (Module m: toEnable) {
@@ -1212,8 +1219,15 @@ public final class ModuleManager extends Modules {
                     }
                     ev.log(Events.PERF_START, "bringing up classloader on " + m.getCodeNameBase()); // NOI18N
                     try {
-                        Set<Module> parents = calculateParents(m);
-                        m.classLoaderUp(parents);
+                        if (preparedLoaders.containsKey(m)) {
+                            IOException prepareFailed = preparedLoaders.remove(m);
+                            if (prepareFailed != null) {
+                                throw prepareFailed;
+                            }
+                        } else {
+                            Set<Module> parents = calculateParents(m);
+                            m.classLoaderUp(parents);
+                        }
                     } catch (IOException ioe) {
                         tryingClassLoaderUp = true;
                         InvalidException ie = new InvalidException(m, ioe.toString());
@@ -1295,6 +1309,13 @@ public final class ModuleManager extends Modules {
                         m.cleanup();
                     }
                 }
+                for (Map.Entry<Module,IOException> e : preparedLoaders.entrySet()) {
+                    if (e.getValue() == null) {
+                        // loader created ahead, but the module was not reached
+                        e.getKey().classLoaderDown();
+                        e.getKey().cleanup();
+                    }
+                }
                 firer.fire();
                 throw ie;
             }
@@ -1434,6 +1455,100 @@ public final class ModuleManager extends Modules {
         }
     }
     
+    /**
+     * Brings up class loaders of modules to be enabled using several
+     * threads, see {@link #CLASS_LOADER_THREADS}. Only plain modules
+     * not involved in fragments are handled. A module is started once all
+     * its parents have their class loaders, so the loaders are created
+     * in waves following the dependencies. Everything order sensitive
+     * (enabling, package dependency checks, installer preparation)
+     * stays sequential in {@link #enable}.
+     *
+     * @return modules whose class loader was brought up mapped to
+     * <code>null</code> or to the failure to do so
+     */
+    private Map<Module,IOException> createClassLoaders(List<Module> toEnable) {
+        final Map<Module,IOException> done = new HashMap<Module,IOException>();
+        int threads = Integer.getInteger(CLASS_LOADER_THREADS, 1);
+        if (threads <= 1) {
+            return done;
+        }
+        final Map<Module,Set<Module>> candidates = new HashMap<Module,Set<Module>>();
+        final Set<Module> pending = new LinkedHashSet<Module>();
+        for (Module m : toEnable) {
+            if (m.isEnabled() || !(m instanceof StandardModule) ||
+                m.getFragmentHostCodeName() != null || !getAttachedFragments(m).isEmpty()) {
+                continue;
+            }
+            try {
+                candidates.put(m, calculateParents(m));
+                pending.add(m);
+            } catch (IOException ex) {
+                // reported again by the sequential code
+            }
+        }
+        if (pending.size() < 2) {
+            return done;
+        }
+        ev.log(Events.PERF_START, "parallel class loaders"); // NOI18N
+        final RequestProcessor rp = new RequestProcessor("Module class loaders", threads); // NOI18N
+        try {
+            int waves = 0;
+            for (;;) {
+                List<Module> wave = new ArrayList<Module>();
+                for (Module m : pending) {
+                    boolean ready = true;
+                    for (Module parent : candidates.get(m)) {
+                        if (!parent.isEnabled() && !(done.containsKey(parent) && done.get(parent) == null)) {
+                            ready = false;
+                            break;
+                        }
+                    }
+                    if (ready) {
+                        wave.add(m);
+                    }
+                }
+                if (wave.isEmpty()) {
+                    break;
+                }
+                pending.removeAll(wave);
+                List<Callable<IOException>> jobs = new ArrayList<Callable<IOException>>(wave.size());
+                for (final Module m : wave) {
+                    jobs.add(new Callable<IOException>() {
+                        @Override
+                        public IOException call() {
+                            try {
+                                m.classLoaderUp(candidates.get(m));
+                                return null;
+                            } catch (IOException ex) {
+                                return ex;
+                            }
+                        }
+                    });
+                }
+                List<Future<IOException>> results = rp.invokeAll(jobs);
+                for (int i = 0; i < wave.size(); i++) {
+                    IOException res;
+                    try {
+                        res = results.get(i).get();
+                    } catch (ExecutionException ex) {
+                        res = new IOException(ex.getCause());
+                    }
+                    done.put(wave.get(i), res);
+                }
+                waves++;
+            }
+            Util.err.log(Level.FINE, "enable: {0} class loaders created in {1} waves", new Object[] {done.size(), waves}); // NOI18N
+        } catch (InterruptedException ex) {
+            // keep what is done, the rest is brought up sequentially
+            Thread.currentThread().interrupt();
+        } finally {
+            rp.shutdown();
+        }
+        ev.log(Events.PERF_END, "parallel class loaders"); // NOI18N
+        return done;
+    }
+
     private final Set<Module> calculateParents(Module m) throws NumberFormatException, IOException {
         // Calculate the parents to initialize the classloader with.
         Dependency[] dependencies = m.getDependenciesArray();
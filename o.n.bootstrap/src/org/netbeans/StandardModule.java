@@ -547,6 +547,10 @@ class StandardModule extends Module {
 
     /** Get the class loader of a particular parent module. */
     protected ClassLoader getParentLoader(Module parent) {
+        if (!parent.isEnabled() && parent.classloader != null) {
+            // brought up ahead of being enabled, see ModuleManager.createClassLoaders
+            return parent.classloader;
+        }
         return parent.getClassLoader();
     }
 
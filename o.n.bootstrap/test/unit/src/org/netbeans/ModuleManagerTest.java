@@ -2229,6 +2229,34 @@ public class ModuleManagerTest extends SetupHid {
         }
     }
 
+    public void testParallelClassLoadersOfDependentModules() throws Exception {
+        System.setProperty(ModuleManager.CLASS_LOADER_THREADS, "2");
+        MockModuleInstaller installer = new MockModuleInstaller();
+        MockEvents ev = new MockEvents();
+        ModuleManager mgr = new ModuleManager(installer, ev);
+        mgr.mutexPrivileged().enterWriteAccess();
+        try {
+            Module m1 = mgr.create(new File(jars, "simple-module.jar"), null, false, false, false);
+            Module m2 = mgr.create(new File(jars, "depends-on-simple-module.jar"), null, false, false, false);
+            Module m3 = mgr.create(new File(jars, "dep-on-dep-on-simple.jar"), null, false, false, false);
+            Set<Module> all = new HashSet<Module>(Arrays.asList(m1, m2, m3));
+            mgr.enable(all);
+            assertTrue(m1.isEnabled());
+            assertTrue(m2.isEnabled());
+            assertTrue(m3.isEnabled());
+            assertEquals(Arrays.asList("prepare", "prepare", "prepare", "load"), installer.actions);
+            Class<?> again = m3.getClassLoader().loadClass("org.baz.SomethingElseAgain");
+            assertEquals("superclass from the parent loader", m2.getClassLoader(), again.getSuperclass().getClassLoader());
+            Method doit = again.getMethod("doit");
+            assertEquals("hello", doit.invoke(again.newInstance()));
+            mgr.disable(all);
+            assertEquals(Collections.EMPTY_SET, mgr.getEnabledModules());
+        } finally {
+            System.clearProperty(ModuleManager.CLASS_LOADER_THREADS);
+            mgr.mutexPrivileged().exitWriteAccess();
+        }
+    }
+
     public void testModuleInterdependencies() throws Exception {
         MockModuleInstaller installer = new MockModuleInstaller();
         MockEvents ev = new MockEvents();
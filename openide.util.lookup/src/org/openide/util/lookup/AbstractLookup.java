@@ -927,8 +927,8 @@ public class AbstractLookup extends Lookup implements Serializable {
         }
 
         @SuppressWarnings("unchecked")
-        private Pair<T>[] getItemsCache() {
-            return (Pair<T>[]) getFromCache(2);
+        private Collection<Pair<T>> getItemsCache() {
+            return (Collection<Pair<T>>) getFromCache(2);
         }
 
         private void setItemsCache(Collection<?> c) {
@@ -939,7 +939,10 @@ public class AbstractLookup extends Lookup implements Serializable {
                 return;
             }
 
-            setReferences(2, c.toArray(new Pair[c.size()]));
+            // keep an immutable snapshot, so repeated allItems() calls
+            // can return it without any allocation until the next change
+            Pair<?>[] arr = c.toArray(new Pair[c.size()]);
+            setReferences(2, Collections.unmodifiableList(Arrays.asList(arr)));
         }
         
         private void setReferences(int index, Object value) {
@@ -974,13 +977,13 @@ public class AbstractLookup extends Lookup implements Serializable {
         /** Delete all cached values, the template changed.
          */
         protected  void collectFires(Collection<Object> evAndListeners) {
-            Object[] previousItems = getItemsCache();
+            Collection<Pair<T>> previousItems = getItemsCache();
             clearCaches();
             
             if (previousItems != null) {
                 Object[] newArray = allItemsWithoutBeforeLookup().toArray();
 
-                if (compareArrays(previousItems, newArray)) {
+                if (compareArrays(previousItems.toArray(), newArray)) {
                     // do not fire any change if nothing has been changed
                     return;
                 }
@@ -1085,10 +1088,10 @@ public class AbstractLookup extends Lookup implements Serializable {
 
         /** Implements the search for allItems, but without asking for before lookup */
         private Collection<Pair<T>> allItemsWithoutBeforeLookup() {
-            Pair<T>[] c = getItemsCache();
+            Collection<Pair<T>> c = getItemsCache();
 
             if (c != null) {
-                return Collections.unmodifiableList(Arrays.asList(c));
+                return c;
             }
 
             ArrayList<Pair<Object>> saferCheck = null;
@@ -1096,7 +1099,9 @@ public class AbstractLookup extends Lookup implements Serializable {
 
             try {
                 try {
-                    return Collections.unmodifiableCollection(initItems(t));
+                    Collection<Pair<T>> items = initItems(t);
+                    Collection<Pair<T>> snapshot = getItemsCache();
+                    return snapshot != null ? snapshot : Collections.unmodifiableCollection(items);
                 } catch (AbstractLookup.ISE ex) {
                     // do less effective evaluation of items outside of the 
                     // locked storage
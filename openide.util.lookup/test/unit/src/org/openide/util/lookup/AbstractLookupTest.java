@@ -255,6 +255,25 @@ public class AbstractLookupTest extends AbstractLookupBaseHid implements Abstrac
         }
     }
     
+    public void testItemsSnapshotReusedUntilChange() {
+        InstanceContent ic = new InstanceContent();
+        AbstractLookup lkp = new AbstractLookup(ic, new InheritanceTree());
+        ic.add(1);
+        ic.add(2);
+
+        Lookup.Result<Integer> res = lkp.lookupResult(Integer.class);
+        Collection<? extends Lookup.Item<Integer>> first = res.allItems();
+        assertEquals("Two items", 2, first.size());
+        assertSame("Same snapshot returned without changes", first, res.allItems());
+
+        ic.add(3);
+        Collection<? extends Lookup.Item<Integer>> second = res.allItems();
+        assertNotSame("New snapshot after change", first, second);
+        assertEquals("Three items", 3, second.size());
+        assertEquals("Old snapshot is not modified", 2, first.size());
+        assertSame("New snapshot is reused", second, res.allItems());
+    }
+
     public void testRemoveWrongListener() {
         class LL implements LookupListener {
             @Override
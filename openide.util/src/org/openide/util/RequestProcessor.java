@@ -21,6 +21,7 @@ package org.openide.util;
 
 import java.lang.reflect.Method;
 import java.security.PrivilegedAction;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -32,7 +33,6 @@ import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.SortedSet;
-import java.util.Stack;
 import java.util.TreeSet;
 import java.util.WeakHashMap;
 import java.util.concurrent.Callable;
@@ -212,6 +212,21 @@ public final class RequestProcessor implements ScheduledExecutorService {
      */
     private final SortedSet<Item> queue = new TreeSet<Item>();
 
+    /** Number of tasks taken from the queue by processors.
+     * @GuardedBy("processorLock")
+     */
+    private long executedCount;
+
+    /** Total time executed tasks spent waiting in the queue, in nanoseconds.
+     * @GuardedBy("processorLock")
+     */
+    private long totalWaitTime;
+
+    /** The longest the queue has ever been.
+     * @GuardedBy("processorLock")
+     */
+    private int maxQueueDepth;
+
     /** The maximal number of processors that can perform the requests sent
      * to this RequestProcessors. If 1, all the requests are serialized. */
     private int throughput;
@@ -621,6 +636,10 @@ public final class RequestProcessor implements ScheduledExecutorService {
     private void prioritizedEnqueue(Item item) {
         getQueue().add(item);
         item.enqueued = true;
+        item.enqueueTime = System.nanoTime();
+        if (getQueue().size() > maxQueueDepth) {
+            maxQueueDepth = getQueue().size();
+        }
     }
 
     Task askForWork(Processor worker, String debug, Lookup[] lkp) {
@@ -632,6 +651,8 @@ public final class RequestProcessor implements ScheduledExecutorService {
 
             Item i = getQueue().first();
             getQueue().remove(i);
+            executedCount++;
+            totalWaitTime += System.nanoTime() - i.enqueueTime;
             Task t = i.getTask();
             lkp[0] = i.current;
             i.clear(worker);
@@ -1042,6 +1063,34 @@ outer:  do {
         assert Thread.holdsLock(processorLock);
         return queue;
     }
+
+    /** Number of tasks currently waiting for execution. */
+    int getQueueDepth() {
+        synchronized (processorLock) {
+            return getQueue().size();
+        }
+    }
+
+    /** The maximal number of tasks that were waiting for execution at once. */
+    int getMaxQueueDepth() {
+        synchronized (processorLock) {
+            return maxQueueDepth;
+        }
+    }
+
+    /** Number of tasks that have been handed to a processor thread. */
+    long getExecutedCount() {
+        synchronized (processorLock) {
+            return executedCount;
+        }
+    }
+
+    /** Average time a task waited in the queue before execution, in milliseconds. */
+    long getAverageWaitTime() {
+        synchronized (processorLock) {
+            return executedCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitTime / executedCount);
+        }
+    }
     
     /**
      * @return a top level ThreadGroup. The method ensures that even Processors
@@ -1720,13 +1769,15 @@ outer:  do {
 
     /* One item representing the task pending in the pending queue */
     private static class Item extends Exception implements Comparable<Item> {
-        private static int counter;
+        private static final AtomicInteger counter = new AtomicInteger();
         private final RequestProcessor owner;
         private final int cnt;
         final Lookup current;
         final ClassLoader ctxLoader;
         Object action;
         boolean enqueued;
+        /** @GuardedBy(owner.processorLock) */
+        long enqueueTime;
         String message;
         /** @GuardedBy(TICK) */
         long when;
@@ -1734,7 +1785,7 @@ outer:  do {
         Item(Task task, RequestProcessor rp) {
             action = task;
             owner = rp;
-            cnt = counter++;
+            cnt = counter.getAndIncrement();
             current = Lookup.getDefault();
             ctxLoader = Thread.currentThread().getContextClassLoader();
         }
@@ -1862,7 +1913,7 @@ outer:  do {
      */
     private static class Processor extends Thread {
         /** A stack containing all the inactive Processors */
-        private static final Stack<Processor> pool = new Stack<Processor>();
+        private static final ArrayDeque<Processor> pool = new ArrayDeque<Processor>();
 
         /* One minute of inactivity and the Thread will die if not assigned */
         private static final int INACTIVE_TIMEOUT = Integer.getInteger("org.openide.util.RequestProcessor.inactiveTime", 60000); // NOI18N
@@ -2068,7 +2119,8 @@ outer:  do {
                 if (loggable) {
                     try {
                         procesing = current;
-                        em.log(Level.FINE, "Work finished {0}", getName()); // NOI18N
+                        em.log(Level.FINE, "Work finished {0}, executed: {1} max queue: {2} avg wait: {3} ms", // NOI18N
+                            new Object[] { getName(), current.getExecutedCount(), current.getMaxQueueDepth(), current.getAverageWaitTime() });
                     } finally {
                         procesing = null;
                     }
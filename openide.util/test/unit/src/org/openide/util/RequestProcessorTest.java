@@ -79,6 +79,38 @@ public class RequestProcessorTest extends NbTestCase {
         assertFalse("Not executed at all", executed[0]);
     }
     
+    public void testQueueStatistics() throws Exception {
+        final CountDownLatch blocker = new CountDownLatch(1);
+        RequestProcessor rp = new RequestProcessor("testQueueStatistics");
+        RequestProcessor.Task first = rp.post(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    blocker.await();
+                } catch (InterruptedException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        });
+        RequestProcessor.Task last = null;
+        for (int i = 0; i < 5; i++) {
+            last = rp.post(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+        }
+        assertTrue("Some tasks are waiting: " + rp.getQueueDepth(), rp.getQueueDepth() >= 5);
+        blocker.countDown();
+        first.waitFinished();
+        last.waitFinished();
+
+        assertEquals("Queue drained", 0, rp.getQueueDepth());
+        assertEquals("All tasks executed", 6, rp.getExecutedCount());
+        assertTrue("Max depth recorded: " + rp.getMaxQueueDepth(), rp.getMaxQueueDepth() >= 5);
+        assertTrue("Non-negative wait", rp.getAverageWaitTime() >= 0);
+    }
+
     public void testUseAsInCND() throws Exception {
         final RequestProcessor processor = new RequestProcessor("testUseAsInCND");
         final AtomicReference<String> threadName = new AtomicReference<String>();
@@ -0,0 +1,213 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.netbeans.modules.parsing.impl;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.netbeans.api.annotations.common.NonNull;
+import org.netbeans.api.annotations.common.NullAllowed;
+import org.netbeans.modules.parsing.spi.ParserResultTask;
+import org.netbeans.modules.parsing.spi.Scheduler;
+import org.netbeans.modules.parsing.spi.SchedulerTask;
+
+/**
+ * Queue wait and run time statistics of the {@link TaskProcessor} requests
+ * split by latency class.
+ * The statistics are dumped into the log each {@link #DUMP_INTERVAL} requests, use
+ * -J-Dorg.netbeans.modules.parsing.impl.SchedulingStatistics.level=FINE to enable them.
+ */
+final class SchedulingStatistics {
+
+    private static final Logger LOG = Logger.getLogger(SchedulingStatistics.class.getName());
+    private static final int DUMP_INTERVAL = 256;
+
+    /**
+     * Latency class of a request.
+     * The request of the latency class should start and finish within the deadline.
+     */
+    enum LatencyClass {
+        /**
+         * Caret driven tasks and tasks not bound to a source.
+         */
+        INTERACTIVE(100),
+        /**
+         * Tasks updating the visible editor or the selected nodes.
+         */
+        VISIBLE(500),
+        /**
+         * All the other tasks.
+         */
+        BACKGROUND(5000);
+
+        private final long deadline;
+
+        private LatencyClass(final long deadline) {
+            this.deadline = deadline;
+        }
+
+        /**
+         * Returns the deadline in milliseconds.
+         * @return the deadline
+         */
+        long getDeadline() {
+            return deadline;
+        }
+
+        @NonNull
+        static LatencyClass forTask(
+                @NonNull final SchedulerTask task,
+                @NullAllowed Class<? extends Scheduler> schedulerType,
+                final boolean sourceBound) {
+            if (!sourceBound) {
+                return INTERACTIVE;
+            }
+            if (schedulerType == null && task instanceof ParserResultTask) {
+                schedulerType = ((ParserResultTask<?>)task).getSchedulerClass();
+            }
+            if (schedulerType == Scheduler.CURSOR_SENSITIVE_TASK_SCHEDULER) {
+                return INTERACTIVE;
+            } else if (schedulerType == Scheduler.EDITOR_SENSITIVE_TASK_SCHEDULER ||
+                schedulerType == Scheduler.SELECTED_NODES_SENSITIVE_TASK_SCHEDULER) {
+                return VISIBLE;
+            } else {
+                return BACKGROUND;
+            }
+        }
+    }
+
+    /**
+     * Histogram with power of two buckets in milliseconds,
+     * the bucket i counts times in the range [2^(i-1), 2^i).
+     */
+    static final class Histogram {
+
+        static final int BUCKETS = 16;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+        void add(final long time) {
+            counts.incrementAndGet(bucket(time));
+        }
+
+        long get(final int bucket) {
+            return counts.get(bucket);
+        }
+
+        static int bucket(final long time) {
+            return time <= 0 ?
+                0 :
+                Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(time));
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder();
+            for (int i = 0; i < BUCKETS; i++) {
+                final long count = counts.get(i);
+                if (count > 0) {
+                    if (sb.length() > 0) {
+                        sb.append(", ");    //NOI18N
+                    }
+                    sb.append(i == 0 ? "0" : "<" + (1L << i))  //NOI18N
+                        .append("ms: ") //NOI18N
+                        .append(count);
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    private static final SchedulingStatistics INSTANCE = new SchedulingStatistics();
+
+    private final Histogram[] waitTimes;
+    private final Histogram[] runTimes;
+    private final AtomicLong[] missedDeadlines;
+    private final AtomicLong count = new AtomicLong();
+
+    /*test*/ SchedulingStatistics() {
+        final int size = LatencyClass.values().length;
+        waitTimes = new Histogram[size];
+        runTimes = new Histogram[size];
+        missedDeadlines = new AtomicLong[size];
+        for (int i = 0; i < size; i++) {
+            waitTimes[i] = new Histogram();
+            runTimes[i] = new Histogram();
+            missedDeadlines[i] = new AtomicLong();
+        }
+    }
+
+    @NonNull
+    static SchedulingStatistics getDefault() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records the performed request.
+     * @param latencyClass the latency class of the request
+     * @param waitTime the time the request waited in the queue in milliseconds
+     * @param runTime the time the request was performed in milliseconds
+     */
+    void record(
+            @NonNull final LatencyClass latencyClass,
+            final long waitTime,
+            final long runTime) {
+        final int index = latencyClass.ordinal();
+        waitTimes[index].add(waitTime);
+        runTimes[index].add(runTime);
+        if (waitTime + runTime > latencyClass.getDeadline()) {
+            missedDeadlines[index].incrementAndGet();
+        }
+        if (count.incrementAndGet() % DUMP_INTERVAL == 0 && LOG.isLoggable(Level.FINE)) {
+            LOG.fine(toString());
+        }
+    }
+
+    @NonNull
+    Histogram getWaitTimes(@NonNull final LatencyClass latencyClass) {
+        return waitTimes[latencyClass.ordinal()];
+    }
+
+    @NonNull
+    Histogram getRunTimes(@NonNull final LatencyClass latencyClass) {
+        return runTimes[latencyClass.ordinal()];
+    }
+
+    long getMissedDeadlines(@NonNull final LatencyClass latencyClass) {
+        return missedDeadlines[latencyClass.ordinal()].get();
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("Scheduling statistics:");  //NOI18N
+        for (LatencyClass lc : LatencyClass.values()) {
+            final int index = lc.ordinal();
+            sb.append('\n') //NOI18N
+                .append(lc)
+                .append(" wait: [")   //NOI18N
+                .append(waitTimes[index])
+                .append("] run: [")   //NOI18N
+                .append(runTimes[index])
+                .append("] missed deadline: ")   //NOI18N
+                .append(missedDeadlines[index].get());
+        }
+        return sb.toString();
+    }
+}
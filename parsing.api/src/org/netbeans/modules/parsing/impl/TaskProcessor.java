@@ -77,7 +77,7 @@ public class TaskProcessor {
     private static final int SLOW_CANCEL_LIMIT = 50;
 
     //Scheduled requests waiting for execution
-    private final static PriorityBlockingQueue<Request> requests = new PriorityBlockingQueue<> (10, new RequestPriorityComparator());
+    private final static PriorityBlockingQueue<Request> requests = new RequestQueue();
     //Finished requests waiting on reschedule by some scheduler or parser
     private final static Map<Source,Collection<Request>> finishedRequests = new WeakHashMap<>();
     //Tasks which are scheduled (not yet executed) but blocked by expected event (waiting for event)
@@ -657,12 +657,17 @@ public class TaskProcessor {
                     try {
                         final Request r = requests.take();
                         if (r != null && r != Request.NONE) {
+                            final long startTime = System.currentTimeMillis();
                             currentRequest.setCurrentTask(r);
                             LOGGER.log(Level.FINE, "Set current request to: {0}", r);   //NOI18N
                             try {
                                 new RequestPerformer(r).execute();
                             } finally {
                                 currentRequest.setCurrentTask(null);
+                                SchedulingStatistics.getDefault().record(
+                                        r.getLatencyClass(),
+                                        startTime - r.scheduledTime,
+                                        System.currentTimeMillis() - startTime);
                             }
                         } else if (r != null) {
                             synchronized (INTERNAL_LOCK) {
@@ -960,6 +965,8 @@ public class TaskProcessor {
         private final ReschedulePolicy reschedule;
         private final Lookup context;
         private Class<? extends Scheduler> schedulerType;
+        //Time when the request was added into requests queue
+        private volatile long scheduledTime;
 
         /**
          * Creates new Request
@@ -1014,6 +1021,11 @@ public class TaskProcessor {
                 }, Lookup.EMPTY);
         }
 
+        @NonNull
+        SchedulingStatistics.LatencyClass getLatencyClass() {
+            return SchedulingStatistics.LatencyClass.forTask(task, schedulerType, cache != null);
+        }
+
         @Override
         public String toString () {
             if (reschedule != ReschedulePolicy.NEVER) {
@@ -1048,6 +1060,23 @@ public class TaskProcessor {
         }
     }
 
+    /**
+     * Queue of scheduled {@link Request}s recording the time the requests were scheduled.
+     */
+    //@ThreadSafe
+    private static final class RequestQueue extends PriorityBlockingQueue<Request> {
+
+        RequestQueue() {
+            super(10, new RequestPriorityComparator());
+        }
+
+        @Override
+        public boolean offer(@NonNull final Request request) {
+            request.scheduledTime = System.currentTimeMillis();
+            return super.offer(request);
+        }
+    }
+
     /**
      * Comparator of {@link Request}s which oreders them using {@link SchedulerTask#getPriority()}
      */
@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.netbeans.modules.parsing.impl;
+
+import org.netbeans.junit.NbTestCase;
+import org.netbeans.modules.parsing.spi.Parser;
+import org.netbeans.modules.parsing.spi.ParserResultTask;
+import org.netbeans.modules.parsing.spi.Scheduler;
+import org.netbeans.modules.parsing.spi.SchedulerEvent;
+import org.netbeans.modules.parsing.impl.SchedulingStatistics.Histogram;
+import org.netbeans.modules.parsing.impl.SchedulingStatistics.LatencyClass;
+
+public class SchedulingStatisticsTest extends NbTestCase {
+
+    public SchedulingStatisticsTest(final String name) {
+        super(name);
+    }
+
+    public void testLatencyClass() {
+        assertEquals(LatencyClass.INTERACTIVE, LatencyClass.forTask(new Task(null), null, false));
+        assertEquals(LatencyClass.INTERACTIVE, LatencyClass.forTask(new Task(Scheduler.CURSOR_SENSITIVE_TASK_SCHEDULER), null, true));
+        assertEquals(LatencyClass.VISIBLE, LatencyClass.forTask(new Task(Scheduler.EDITOR_SENSITIVE_TASK_SCHEDULER), null, true));
+        assertEquals(LatencyClass.VISIBLE, LatencyClass.forTask(new Task(null), Scheduler.SELECTED_NODES_SENSITIVE_TASK_SCHEDULER, true));
+        assertEquals(LatencyClass.BACKGROUND, LatencyClass.forTask(new Task(null), null, true));
+    }
+
+    public void testHistogramBuckets() {
+        assertEquals(0, Histogram.bucket(-1));
+        assertEquals(0, Histogram.bucket(0));
+        assertEquals(1, Histogram.bucket(1));
+        assertEquals(2, Histogram.bucket(2));
+        assertEquals(2, Histogram.bucket(3));
+        assertEquals(3, Histogram.bucket(4));
+        assertEquals(Histogram.BUCKETS - 1, Histogram.bucket(Long.MAX_VALUE));
+    }
+
+    public void testRecord() {
+        final SchedulingStatistics stats = new SchedulingStatistics();
+        stats.record(LatencyClass.INTERACTIVE, 10, 20);
+        stats.record(LatencyClass.INTERACTIVE, 90, 20);
+        stats.record(LatencyClass.BACKGROUND, 0, 3);
+        assertEquals(1, stats.getWaitTimes(LatencyClass.INTERACTIVE).get(Histogram.bucket(10)));
+        assertEquals(1, stats.getWaitTimes(LatencyClass.INTERACTIVE).get(Histogram.bucket(90)));
+        assertEquals(2, stats.getRunTimes(LatencyClass.INTERACTIVE).get(Histogram.bucket(20)));
+        assertEquals(1, stats.getMissedDeadlines(LatencyClass.INTERACTIVE));
+        assertEquals(1, stats.getRunTimes(LatencyClass.BACKGROUND).get(Histogram.bucket(3)));
+        assertEquals(0, stats.getMissedDeadlines(LatencyClass.BACKGROUND));
+        assertEquals(0, stats.getMissedDeadlines(LatencyClass.VISIBLE));
+    }
+
+    private static final class Task extends ParserResultTask<Parser.Result> {
+
+        private final Class<? extends Scheduler> schedulerClass;
+
+        Task(final Class<? extends Scheduler> schedulerClass) {
+            this.schedulerClass = schedulerClass;
+        }
+
+        @Override
+        public void run(Parser.Result result, SchedulerEvent event) {
+        }
+
+        @Override
+        public int getPriority() {
+            return 0;
+        }
+
+        @Override
+        public Class<? extends Scheduler> getSchedulerClass() {
+            return schedulerClass;
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.netbeans.modules.parsing.impl.indexing;
+
+import java.net.URL;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.netbeans.api.annotations.common.CheckForNull;
+import org.netbeans.api.annotations.common.NonNull;
+import org.openide.util.Pair;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Crawls source roots ahead of the indexing thread.
+ * While the {@link RepositoryUpdater} worker indexes a source root the following
+ * roots in the scan order which have no dependency or peer edge to any not yet
+ * indexed root are crawled concurrently on a bounded pool. The indexing itself
+ * stays on the worker in the original order, so the indexers see the roots
+ * in the same deterministic order as in the sequential mode.
+ */
+class IndexSourceCrawlPool {
+
+    private static final int MIN_PROC = 4;
+    private static final boolean PAR_ENABLED = Boolean.getBoolean("IndexSourceCrawlPool.parallel");   //NOI18N
+    /*test*/ static final int PROC_COUNT = Integer.getInteger(
+            "IndexSourceCrawlPool.proc.count",  //NOI18N
+            Runtime.getRuntime().availableProcessors());
+    private static final int WINDOW = 2 * PROC_COUNT;
+    private static final Logger LOG = Logger.getLogger(IndexSourceCrawlPool.class.getName());
+    private static final RequestProcessor RP = new RequestProcessor(
+            IndexSourceCrawlPool.class.getName(),
+            PROC_COUNT,
+            false,
+            false);
+
+    private final IndexBinaryWorkPool.Function<URL,Crawler> fnc;
+    private final Callable<Boolean> cancel;
+    private final List<? extends URL> roots;
+    private final Map<URL,List<URL>> roots2Deps;
+    private final Map<URL,List<URL>> roots2Peers;
+    //@GuardedBy("indexing thread")
+    private final Map<URL,Future<Pair<Crawler,Long>>> scheduled;
+
+    /*test*/ IndexSourceCrawlPool(
+            @NonNull final IndexBinaryWorkPool.Function<URL,Crawler> fnc,
+            @NonNull final Callable<Boolean> cancel,
+            @NonNull final List<? extends URL> roots,
+            @NonNull final Map<URL,List<URL>> roots2Deps,
+            @NonNull final Map<URL,List<URL>> roots2Peers) {
+        assert fnc != null;
+        assert cancel != null;
+        assert roots != null;
+        assert roots2Deps != null;
+        assert roots2Peers != null;
+        this.fnc = fnc;
+        this.cancel = cancel;
+        this.roots = roots;
+        this.roots2Deps = roots2Deps;
+        this.roots2Peers = roots2Peers;
+        this.scheduled = new HashMap<>();
+    }
+
+    /**
+     * Schedules the crawling of the roots following the root at given index.
+     * Only roots having no edge to the roots in range [current, candidate)
+     * are scheduled, the other ones are reconsidered in the next call.
+     * @param current the index of the root being indexed
+     */
+    void prefetch(final int current) {
+        final int end = Math.min(roots.size(), current + WINDOW + 1);
+        for (int i = current + 1; i < end; i++) {
+            final URL candidate = roots.get(i);
+            if (scheduled.containsKey(candidate)) {
+                continue;
+            }
+            boolean independent = true;
+            for (int j = current; j < i; j++) {
+                if (hasEdge(candidate, roots.get(j))) {
+                    independent = false;
+                    break;
+                }
+            }
+            if (independent) {
+                LOG.log(Level.FINE, "Prefetching crawl of: {0}", candidate);    //NOI18N
+                scheduled.put(candidate, RP.submit(new Task(candidate, fnc, cancel)));
+            }
+        }
+    }
+
+    /**
+     * Returns the crawler prepared for given root.
+     * Waits for the crawler when it's still running.
+     * @param root the root to return the crawler for
+     * @return the pair of finished crawler and time of crawling or null
+     * when the root was not crawled ahead
+     */
+    @CheckForNull
+    Pair<Crawler,Long> take(@NonNull final URL root) {
+        final Future<Pair<Crawler,Long>> becomeCrawler = scheduled.remove(root);
+        if (becomeCrawler == null) {
+            return null;
+        }
+        try {
+            return becomeCrawler.get();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (CancellationException ce) {
+            //pass - crawl in the indexing thread
+        } catch (ExecutionException ee) {
+            LOG.log(Level.WARNING, null, ee.getCause());
+        }
+        return null;
+    }
+
+    /**
+     * Drops the crawl of given root which is not going to be used.
+     * The crawl is cancelled when not yet started.
+     * @param root the root to drop the crawl for
+     */
+    void drop(@NonNull final URL root) {
+        final Future<?> f = scheduled.remove(root);
+        if (f != null) {
+            f.cancel(false);
+        }
+    }
+
+    /**
+     * Cancels the not yet started crawls.
+     * The running crawls are left to finish, their results are ignored.
+     */
+    void cancel() {
+        for (Future<?> f : scheduled.values()) {
+            f.cancel(false);
+        }
+        scheduled.clear();
+    }
+
+    private boolean hasEdge(
+            @NonNull final URL root1,
+            @NonNull final URL root2) {
+        return contains(roots2Deps.get(root1), root2) ||
+            contains(roots2Deps.get(root2), root1) ||
+            contains(roots2Peers.get(root1), root2) ||
+            contains(roots2Peers.get(root2), root1);
+    }
+
+    private static boolean contains(
+            final Collection<? extends URL> c,
+            @NonNull final URL url) {
+        return c != null && c.contains(url);
+    }
+
+    /**
+     * Creates a new {@link IndexSourceCrawlPool} when the parallel crawling is enabled.
+     * @param fnc the function creating a finished crawler for a root, may return null
+     * @param cancel the cancel status
+     * @param roots the source roots in the order of indexing
+     * @param roots2Deps the source roots dependencies
+     * @param roots2Peers the source roots peers
+     * @return the {@link IndexSourceCrawlPool} or null when the roots should be crawled sequentially
+     */
+    @CheckForNull
+    static IndexSourceCrawlPool create(
+            @NonNull final IndexBinaryWorkPool.Function<URL,Crawler> fnc,
+            @NonNull final Callable<Boolean> cancel,
+            @NonNull final List<? extends URL> roots,
+            @NonNull final Map<URL,List<URL>> roots2Deps,
+            @NonNull final Map<URL,List<URL>> roots2Peers) {
+        final int procCount = Runtime.getRuntime().availableProcessors();
+        LOG.log(
+            Level.FINER,
+            "Proc Count: {0} Roots Count: {1} Parallel crawling enabled: {2}",  //NOI18N
+            new Object[]{
+                procCount,
+                roots.size(),
+                PAR_ENABLED}
+        );
+        if (PAR_ENABLED && procCount >= MIN_PROC && roots.size() >= 2) {
+            LOG.log(
+                Level.FINE,
+                "Using parallel crawling, {0} workers",    //NOI18N
+                PROC_COUNT);
+            return new IndexSourceCrawlPool(
+                    fnc,
+                    cancel,
+                    Collections.unmodifiableList(roots),
+                    roots2Deps,
+                    roots2Peers);
+        } else {
+            return null;
+        }
+    }
+
+    private static class Task implements Callable<Pair<Crawler,Long>> {
+
+        private final URL root;
+        private final IndexBinaryWorkPool.Function<URL,Crawler> performer;
+        private final Callable<Boolean> cancel;
+
+        private Task(
+            @NonNull final URL root,
+            @NonNull final IndexBinaryWorkPool.Function<URL,Crawler> performer,
+            @NonNull final Callable<Boolean> cancel) {
+            this.root = root;
+            this.performer = performer;
+            this.cancel = cancel;
+        }
+
+        @Override
+        public Pair<Crawler,Long> call() throws Exception {
+            if (cancel.call()) {
+                return null;
+            }
+            final long start = System.currentTimeMillis();
+            final Crawler crawler = performer.apply(root);
+            return crawler == null ?
+                null :
+                Pair.<Crawler,Long>of(crawler, System.currentTimeMillis() - start);
+        }
+    }
+}
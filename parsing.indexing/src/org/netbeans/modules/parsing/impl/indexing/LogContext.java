@@ -557,6 +557,11 @@ import org.openide.util.BaseUtilities;
      * Time crawling between files
      */
     private long        crawlerTime;
+
+    /**
+     * Time crawling source roots ahead of indexing in the crawl pool
+     */
+    private long        parallelCrawlerTime;
     
     /**
      * Time spent in scanning source roots listed in {@link #scannedSourceRoots}
@@ -600,6 +605,7 @@ import org.openide.util.BaseUtilities;
         private String  indexerName;
         private int count;
         private long    crawlerTime;
+        private long    parallelCrawlerTime;
         private int     resCount = -1;
         private int     allResCount = -1;
         private LinkedList<Object> pastIndexers = null;
@@ -614,6 +620,9 @@ import org.openide.util.BaseUtilities;
             long time = spent == 0 ? timeCutOff - startTime : spent;
             String s = "< root = " + url.toString() + "; spent = " + time + "; crawler = " + crawlerTime + "; res = "
                     + resCount + "; allRes = " + allResCount;
+            if (parallelCrawlerTime > 0) {
+                s = s + "; parallel crawler = " + parallelCrawlerTime;
+            }
             if (indexerName != null) {
                 s = s + "; indexer: " + indexerName;
             }
@@ -629,6 +638,7 @@ import org.openide.util.BaseUtilities;
             }
             this.spent += ri.spent;
             this.crawlerTime += ri.crawlerTime;
+            this.parallelCrawlerTime += ri.parallelCrawlerTime;
             if (ri.resCount > -1) {
                 this.resCount = ri.resCount;
             }
@@ -782,6 +792,25 @@ import org.openide.util.BaseUtilities;
         checkConsistency();
     }
     
+    /**
+     * Records the crawling of a root done ahead of indexing in the crawl pool.
+     * @param time the time spent by crawling in the crawl pool
+     * @param waitTime the time the indexing thread waited for the crawler
+     * @param resCount number of changed resources
+     * @param allResCount number of all resources
+     */
+    public synchronized void addParallelCrawlerTime(long time, long waitTime, int resCount, int allResCount) {
+        if (frozen) {
+            return;
+        }
+        this.parallelCrawlerTime += time;
+        RootInfo ri = allCurrentRoots.get(Thread.currentThread());
+        if (ri != null) {
+            ri.parallelCrawlerTime += time;
+        }
+        addCrawlerTime(waitTime, resCount, allResCount);
+    }
+    
     public synchronized void addStoreTime(long time) {
         updaterThreadAlive = true;
         if (frozen) {
@@ -1038,6 +1067,9 @@ import org.openide.util.BaseUtilities;
         
         sb.append("\nTime in index store: " + storeTime);
         sb.append("\nTime crawling: " + crawlerTime);
+        if (parallelCrawlerTime > 0) {
+            sb.append("\nTime crawling in parallel: " + parallelCrawlerTime);
+        }
         
         if (!reindexInitiators.isEmpty()) {
             sb.append("\nReindexing demanded by indexers:\n");
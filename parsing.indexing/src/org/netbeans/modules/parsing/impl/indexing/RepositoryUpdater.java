@@ -2992,14 +2992,19 @@ public final class RepositoryUpdater implements PathRegistryListener, PropertyCh
             }
         }
 
+        @NonNull
+        protected final FileObject getBinaryCacheRoot(@NonNull final URL root) throws IOException {
+            return CacheFolder.getDataFolder(
+                    root,
+                    EnumSet.of(CacheFolderProvider.Kind.BINARIES),
+                    CacheFolderProvider.Mode.CREATE);
+        }
+
         protected final void createBinaryContexts(
                 @NonNull final URL root,
                 @NonNull final BinaryIndexers indexers,
                 @NonNull final Map<BinaryIndexerFactory, Context> contexts) throws IOException {
-            final FileObject cacheRoot = CacheFolder.getDataFolder(
-                    root,
-                    EnumSet.of(CacheFolderProvider.Kind.BINARIES),
-                    CacheFolderProvider.Mode.CREATE);
+            final FileObject cacheRoot = getBinaryCacheRoot(root);
             for(BinaryIndexerFactory bif : indexers.bifs) {
                 final Context ctx = SPIAccessor.getInstance().createContext(
                     cacheRoot,
@@ -3055,6 +3060,16 @@ public final class RepositoryUpdater implements PathRegistryListener, PropertyCh
             return Pair.<Long,Map<Pair<String,Integer>,Integer>>of(currentTimeStamp,pairs);
         }
 
+        @NonNull
+        protected final Collection<Pair<String,Integer>> createBinaryIndexersKeys(
+                @NonNull final Map<BinaryIndexerFactory, Context> contexts) {
+            final Collection<Pair<String,Integer>> keys = new ArrayList<>(contexts.size());
+            for (BinaryIndexerFactory bf : contexts.keySet()) {
+                keys.add(Pair.<String,Integer>of(bf.getIndexerName(),bf.getIndexVersion()));
+            }
+            return keys;
+        }
+
         protected final boolean indexBinary(
                 final URL root,
                 final BinaryIndexers indexers,
@@ -3358,6 +3373,20 @@ public final class RepositoryUpdater implements PathRegistryListener, PropertyCh
                     ac == null ? -1 : ac.size());
         }
 
+        protected final void logParallelCrawlerTime(Crawler crawler, long crawlTime, long start) throws IOException {
+            final LogContext lctx = getLogContext();
+            if (lctx == null) {
+                return;
+            }
+            Collection c = crawler.getResources();
+            Collection ac = crawler.getAllResources();
+
+            lctx.addParallelCrawlerTime(crawlTime,
+                    System.currentTimeMillis() - start,
+                    c.size(),
+                    ac == null ? -1 : ac.size());
+        }
+
         protected final void logStartIndexer(String iName) {
             final LogContext lc = getLogContext();
             if (lc != null) {
@@ -5241,6 +5270,8 @@ public final class RepositoryUpdater implements PathRegistryListener, PropertyCh
     private static abstract class AbstractRootsWork extends Work {
 
         private boolean logStatistics;
+        //@GuardedBy("indexing thread")
+        private IndexSourceCrawlPool crawlPool;
 
         protected AbstractRootsWork(
                 final boolean logStatistics,
@@ -5310,13 +5341,26 @@ public final class RepositoryUpdater implements PathRegistryListener, PropertyCh
                             createBinaryContexts(root, binaryIndexers, contexts);
                             final FileObject rootFo = URLCache.getInstance().findFileObject(root, true);
                             final FileObject file = rootFo == null ? null : FileUtil.getArchiveFile(rootFo);
-                            final boolean upToDate;
+                            final SharedIndexStore sharedStore = SharedIndexStore.getDefault();
+                            boolean upToDate;
+                            boolean imported = false;
+                            String sharedKey = null;
                             final long currentLastModified;
                             if (file != null) {
                                 final Pair<Long,Map<Pair<String,Integer>,Integer>> lastState = ArchiveTimeStamps.getLastModified(root);
                                 final boolean indexersUpToDate = checkBinaryIndexers(lastState, contexts);
                                 currentLastModified = file.lastModified().getTime();
                                 upToDate = indexersUpToDate && lastState.first() ==  currentLastModified;
+                                if (!upToDate && sharedStore != null && (lastState.first() == 0L || sharedStore.isPublishing())) {
+                                    sharedKey = sharedStore.getKey(file);
+                                    if (sharedKey != null && lastState.first() == 0L) {
+                                        imported = sharedStore.importIndex(
+                                            sharedKey,
+                                            getBinaryCacheRoot(root),
+                                            createBinaryIndexersKeys(contexts));
+                                        upToDate = imported;
+                                    }
+                                }
                             } else {
                                 currentLastModified = -1L;
                                 upToDate = false;
@@ -5327,9 +5371,15 @@ public final class RepositoryUpdater implements PathRegistryListener, PropertyCh
                                 success = indexBinary(root, binaryIndexers, contexts);
                             } finally {
                                 binaryScanFinished(binaryIndexers, contexts, startedIndexers, success);
-                                if (success && !upToDate && FileUtil.getArchiveFile(root) != null) {
+                                if (success && (!upToDate || imported) && FileUtil.getArchiveFile(root) != null) {
                                     ArchiveTimeStamps.setLastModified(root, createBinaryIndexersTimeStamp(currentLastModified,contexts));
                                 }
+                                if (success && !upToDate && sharedKey != null) {
+                                    sharedStore.publish(
+                                        sharedKey,
+                                        getBinaryCacheRoot(root),
+                                        createBinaryIndexersKeys(contexts));
+                                }
                             }
                         } finally {
                             if (lctx != null) {
@@ -5372,78 +5422,90 @@ public final class RepositoryUpdater implements PathRegistryListener, PropertyCh
             long totalRecursiveListenersTime = 0;
             boolean finished = true;
 
-            for (URL source : ctx.newRootsToScan) {
-                if (getCancelRequest().isRaised()) {
-                    finished = false;
-                    break;
-                }
-
-                final long tmStart = System.currentTimeMillis();
-                final int [] outOfDateFiles = new int [] { 0 };
-                final int [] deletedFiles = new int [] { 0 };
-                final long [] recursiveListenersTime = new long [] { 0 };
-                try {
-                    updateProgress(source, true);
-                    boolean preregistered = false;
-                    boolean success = false;
-                    if (preregisterIn != null && !preregisterIn.containsKey(source)) {
-                        preregisterIn.put(source, UNKNOWN_ROOT);
-                        preregistered = true;
+            crawlPool = isNoRootsScan() ? null : createCrawlPool(ctx);
+            try {
+                for (int i = 0; i < ctx.newRootsToScan.size(); i++) {
+                    final URL source = ctx.newRootsToScan.get(i);
+                    if (getCancelRequest().isRaised()) {
+                        finished = false;
+                        break;
+                    }
+                    if (crawlPool != null) {
+                        crawlPool.prefetch(i);
                     }
-                    LogContext lctx = getLogContext();
+
+                    final long tmStart = System.currentTimeMillis();
+                    final int [] outOfDateFiles = new int [] { 0 };
+                    final int [] deletedFiles = new int [] { 0 };
+                    final long [] recursiveListenersTime = new long [] { 0 };
                     try {
-                        if (lctx != null) {
-                            lctx.noteRootScanning(source, false);
+                        updateProgress(source, true);
+                        boolean preregistered = false;
+                        boolean success = false;
+                        if (preregisterIn != null && !preregisterIn.containsKey(source)) {
+                            preregisterIn.put(source, UNKNOWN_ROOT);
+                            preregistered = true;
                         }
-                        final boolean sourceForBinaryRoot = ctx.sourcesForBinaryRoots.contains(source);
-                        if (ctx.newIncompleteSeenRoots.contains(source)) {
-                            long st = System.currentTimeMillis();
-                            final ClassPath.Entry entry = sourceForBinaryRoot ?
-                                null :
-                                getClassPathEntry(URLCache.getInstance().findFileObject(source, false));
-                            RepositoryUpdater.getDefault().rootsListeners.addSource(source, entry);
-                            recursiveListenersTime[0] = System.currentTimeMillis() - st;
-                            ctx.scannedRoots.add(source);
-                            success = true;
-                        } else if (scanSource (source, ctx.fullRescanSourceRoots.contains(source), sourceForBinaryRoot, outOfDateFiles, deletedFiles, recursiveListenersTime)) {
-                            ctx.scannedRoots.add(source);
-                            success = true;
-                        } else {
-                            finished = false;
-                            break;
+                        LogContext lctx = getLogContext();
+                        try {
+                            if (lctx != null) {
+                                lctx.noteRootScanning(source, false);
+                            }
+                            final boolean sourceForBinaryRoot = ctx.sourcesForBinaryRoots.contains(source);
+                            if (ctx.newIncompleteSeenRoots.contains(source)) {
+                                long st = System.currentTimeMillis();
+                                final ClassPath.Entry entry = sourceForBinaryRoot ?
+                                    null :
+                                    getClassPathEntry(URLCache.getInstance().findFileObject(source, false));
+                                RepositoryUpdater.getDefault().rootsListeners.addSource(source, entry);
+                                recursiveListenersTime[0] = System.currentTimeMillis() - st;
+                                ctx.scannedRoots.add(source);
+                                success = true;
+                            } else if (scanSource (source, ctx.fullRescanSourceRoots.contains(source), sourceForBinaryRoot, outOfDateFiles, deletedFiles, recursiveListenersTime)) {
+                                ctx.scannedRoots.add(source);
+                                success = true;
+                            } else {
+                                finished = false;
+                                break;
+                            }
+                        } finally {
+                            if (lctx != null) {
+                                lctx.finishScannedRoot(source);
+                            }
+                            if (preregistered && !success) {
+                                preregisterIn.remove(source);
+                            }
                         }
+                    } catch (IOException ioe) {
+                        LOGGER.log(Level.WARNING, null, ioe);
                     } finally {
-                        if (lctx != null) {
-                            lctx.finishScannedRoot(source);
-                        }
-                        if (preregistered && !success) {
-                            preregisterIn.remove(source);
+                        final long time = System.currentTimeMillis() - tmStart;
+                        completeTime += time;
+                        scannedRootsCnt++;
+                        totalOutOfDateFiles += outOfDateFiles[0];
+                        totalDeletedFiles += deletedFiles[0];
+                        totalRecursiveListenersTime += recursiveListenersTime[0];
+                        reportRootScan(source, time);
+                        if (LOGGER.isLoggable(Level.INFO)) {
+                            final File f = FileUtil.archiveOrDirForURL(source);
+                            final Object shown = f != null ? f : source;
+                            LOGGER.log(
+                                Level.INFO,
+                                "Indexing of: {0} took: {1} ms (New or modified files: {2}, Deleted files: {3}) [Adding listeners took: {4} ms]", //NOI18N
+                                new Object[] {
+                                    shown,
+                                    time,
+                                    outOfDateFiles[0],
+                                    deletedFiles[0],
+                                    recursiveListenersTime[0]
+                                });
                         }
                     }
-                } catch (IOException ioe) {
-                    LOGGER.log(Level.WARNING, null, ioe);
-                } finally {
-                    final long time = System.currentTimeMillis() - tmStart;
-                    completeTime += time;
-                    scannedRootsCnt++;
-                    totalOutOfDateFiles += outOfDateFiles[0];
-                    totalDeletedFiles += deletedFiles[0];
-                    totalRecursiveListenersTime += recursiveListenersTime[0];
-                    reportRootScan(source, time);
-                    if (LOGGER.isLoggable(Level.INFO)) {
-                        final File f = FileUtil.archiveOrDirForURL(source);
-                        final Object shown = f != null ? f : source;
-                        LOGGER.log(
-                            Level.INFO,
-                            "Indexing of: {0} took: {1} ms (New or modified files: {2}, Deleted files: {3}) [Adding listeners took: {4} ms]", //NOI18N
-                            new Object[] {
-                                shown,
-                                time,
-                                outOfDateFiles[0],
-                                deletedFiles[0],
-                                recursiveListenersTime[0]
-                            });
-                    }
+                }
+            } finally {
+                if (crawlPool != null) {
+                    crawlPool.cancel();
+                    crawlPool = null;
                 }
             }
 
@@ -5461,6 +5523,80 @@ public final class RepositoryUpdater implements PathRegistryListener, PropertyCh
             return finished;
         }
 
+        @CheckForNull
+        private IndexSourceCrawlPool createCrawlPool(@NonNull final DependenciesContext ctx) {
+            return IndexSourceCrawlPool.create(
+                new IndexBinaryWorkPool.Function<URL, Crawler>() {
+                    @Override
+                    public Crawler apply(URL root) {
+                        if (ctx.newIncompleteSeenRoots.contains(root)) {
+                            return null;
+                        }
+                        try {
+                            if (!TimeStamps.existForRoot(root) && getRemoteIndexURL(root) != null) {
+                                //The index is going to be downloaded, no crawl needed
+                                return null;
+                            }
+                            return crawlSource(
+                                root,
+                                ctx.fullRescanSourceRoots.contains(root),
+                                ctx.sourcesForBinaryRoots.contains(root));
+                        } catch (IOException ioe) {
+                            LOGGER.log(Level.FINE, null, ioe);
+                            return null;
+                        }
+                    }
+                },
+                new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() throws Exception {
+                        return getCancelRequest().isRaised();
+                    }
+                },
+                ctx.newRootsToScan,
+                ctx.newRoots2Deps,
+                ctx.newRoots2Peers);
+        }
+
+        /**
+         * Crawls the source root in the crawl pool thread.
+         * @return the crawler with the collected resources or null
+         * if the root does not exist
+         */
+        @CheckForNull
+        private Crawler crawlSource(
+                @NonNull final URL root,
+                final boolean fullRescan,
+                final boolean sourceForBinaryRoot) throws IOException {
+            final FileObject rootFo = URLCache.getInstance().findFileObject(root, true);
+            if (rootFo == null) {
+                return null;
+            }
+            return runInContext(rootFo, new Callable<Crawler>() {
+                @Override
+                public Crawler call() throws Exception {
+                    final Crawler crawler = createCrawler(rootFo, fullRescan, sourceForBinaryRoot);
+                    //Collects the resources
+                    crawler.isFinished();
+                    return crawler;
+                }
+            });
+        }
+
+        @NonNull
+        private Crawler createCrawler(
+                @NonNull final FileObject rootFo,
+                final boolean fullRescan,
+                final boolean sourceForBinaryRoot) throws IOException {
+            //todo: optimize for java.io.Files
+            final ClassPath.Entry entry = sourceForBinaryRoot ? null : getClassPathEntry(rootFo);
+            final Set<Crawler.TimeStampAction> checkTimeStamps = EnumSet.of(Crawler.TimeStampAction.UPDATE);
+            if (!fullRescan) {
+                checkTimeStamps.add(Crawler.TimeStampAction.CHECK);
+            }
+            return new FileObjectCrawler(rootFo, checkTimeStamps, entry, getCancelRequest(), getSuspendStatus());
+        }
+
         private static boolean isNoRootsScan() {
             return Boolean.getBoolean("netbeans.indexing.noRootsScan"); //NOI18N
         }
@@ -5666,17 +5802,18 @@ public final class RepositoryUpdater implements PathRegistryListener, PropertyCh
                                                 e.getValue().getStatus(true);
                                             }
                                         }
+                                        if (crawlPool != null) {
+                                            crawlPool.drop(root);
+                                        }
                                         return true;
                                     }
                                 }
                             }
-                            //todo: optimize for java.io.Files
                             final ClassPath.Entry entry = sourceForBinaryRoot ? null : getClassPathEntry(rootFo);
-                            final Set<Crawler.TimeStampAction> checkTimeStamps = EnumSet.of(Crawler.TimeStampAction.UPDATE);
-                            if (!fullRescan) {
-                                checkTimeStamps.add(Crawler.TimeStampAction.CHECK);
-                            }
-                            final Crawler crawler = new FileObjectCrawler(rootFo, checkTimeStamps, entry, getCancelRequest(), getSuspendStatus());
+                            final Pair<Crawler,Long> prefetched = crawlPool == null ? null : crawlPool.take(root);
+                            final Crawler crawler = prefetched == null ?
+                                    createCrawler(rootFo, fullRescan, sourceForBinaryRoot) :
+                                    prefetched.first();
                             final List<Indexable> resources = crawler.getResources();
                             final List<Indexable> allResources = crawler.getAllResources();
                             final List<Indexable> deleted = crawler.getDeletedResources();
@@ -5684,7 +5821,11 @@ public final class RepositoryUpdater implements PathRegistryListener, PropertyCh
                             AbstractRootsWork.this.modifiedResourceCount = resources.size();
                             AbstractRootsWork.this.allResourceCount = allResources == null ? 0 : allResources.size();
 
-                            logCrawlerTime(crawler, t);
+                            if (prefetched == null) {
+                                logCrawlerTime(crawler, t);
+                            } else {
+                                logParallelCrawlerTime(crawler, prefetched.second(), t);
+                            }
                             if (crawler.isFinished()) {
                                 final Map<SourceIndexerFactory,Boolean> invalidatedMap = new IdentityHashMap<>();
                                 final Map<Pair<String,Integer>,Pair<SourceIndexerFactory,Context>> ctxToFinish = new HashMap<>();
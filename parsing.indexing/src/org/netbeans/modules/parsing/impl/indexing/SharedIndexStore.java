@@ -0,0 +1,346 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.netbeans.modules.parsing.impl.indexing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.netbeans.api.annotations.common.CheckForNull;
+import org.netbeans.api.annotations.common.NonNull;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+import org.openide.util.Pair;
+
+/**
+ * Read only, content addressed store of binary roots indexes shared among user directories.
+ * The store is a folder given by the {@code netbeans.indexing.sharedIndex} property
+ * containing the indexes in the {@code <archive key>/<indexer name>/<indexer version>}
+ * layout. The archive key is the SHA-1 of the archive's zip central directory, which
+ * lists the name, size and CRC-32 of every entry, so the archive content is not read. The index of an archive found in the store is copied into the local cache folder
+ * instead of running the {@link org.netbeans.modules.parsing.spi.indexing.BinaryIndexer}s.
+ * The indexes are copied rather than used in place as the indexes in the cache folder are
+ * updated when the archive changes. When the {@code netbeans.indexing.sharedIndex.publish}
+ * property is set (typically on CI) the locally created indexes are published into the store.
+ */
+final class SharedIndexStore {
+
+    private static final String PROP_LOCATION = "netbeans.indexing.sharedIndex";   //NOI18N
+    private static final String PROP_PUBLISH = "netbeans.indexing.sharedIndex.publish";   //NOI18N
+    private static final String DIGEST_ALGORITHM = "SHA-1";  //NOI18N
+    private static final String TMP_PREFIX = ".tmp";    //NOI18N
+    private static final int BUFFER_SIZE = 1<<16;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int END_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xffff;
+    private static final Logger LOG = Logger.getLogger(SharedIndexStore.class.getName());
+    //@GuardedBy("SharedIndexStore.class")
+    private static SharedIndexStore instance;
+    //@GuardedBy("SharedIndexStore.class")
+    private static boolean initialized;
+
+    private final File folder;
+    private final boolean publish;
+
+    private SharedIndexStore(
+            @NonNull final File folder,
+            final boolean publish) {
+        assert folder != null;
+        this.folder = folder;
+        this.publish = publish;
+    }
+
+    /**
+     * Tests if the store accepts new indexes.
+     * @return true when the locally created indexes should be published
+     */
+    boolean isPublishing() {
+        return publish;
+    }
+
+    /**
+     * Computes the store key of the archive.
+     * @param archive the archive file
+     * @return the key or null when it cannot be computed
+     */
+    @CheckForNull
+    String getKey(@NonNull final FileObject archive) {
+        try {
+            final MessageDigest md = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            final File file = FileUtil.toFile(archive);
+            if (file == null || !digestCentralDirectory(file, md)) {
+                md.reset();
+                final byte[] buffer = new byte[BUFFER_SIZE];
+                try (InputStream in = archive.getInputStream()) {
+                    int len;
+                    while ((len = in.read(buffer)) > 0) {
+                        md.update(buffer, 0, len);
+                    }
+                }
+            }
+            final StringBuilder sb = new StringBuilder();
+            for (byte b : md.digest()) {
+                sb.append(Character.forDigit((b >>> 4) & 0x0f, 16)).
+                    append(Character.forDigit(b & 0x0f, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException | IOException e) {
+            LOG.log(Level.FINE, null, e);
+            return null;
+        }
+    }
+
+    /**
+     * Digests the central directory of a zip file together with the file length.
+     * @param file the zip file
+     * @param md the digest to update
+     * @return false when the central directory cannot be found, e.g. for zip64 archives
+     */
+    private static boolean digestCentralDirectory(
+            @NonNull final File file,
+            @NonNull final MessageDigest md) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {  //NOI18N
+            final long length = raf.length();
+            if (length < END_SIZE) {
+                return false;
+            }
+            final int tailSize = (int) Math.min(length, END_SIZE + MAX_COMMENT_SIZE);
+            final byte[] tail = new byte[tailSize];
+            raf.seek(length - tailSize);
+            raf.readFully(tail);
+            for (int i = tailSize - END_SIZE; i >= 0; i--) {
+                if (getInt(tail, i) == END_SIGNATURE) {
+                    final long cdSize = getInt(tail, i + 12) & 0xffffffffL;
+                    final long cdOffset = getInt(tail, i + 16) & 0xffffffffL;
+                    if (cdOffset + cdSize > length - tailSize + i || cdSize > Integer.MAX_VALUE) {
+                        return false;
+                    }
+                    final byte[] cd = new byte[(int) cdSize];
+                    raf.seek(cdOffset);
+                    raf.readFully(cd);
+                    md.update(cd);
+                    md.update(Long.toString(length).getBytes("UTF-8")); //NOI18N
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static int getInt(
+            @NonNull final byte[] data,
+            final int offset) {
+        return (data[offset] & 0xff)
+            | (data[offset + 1] & 0xff) << 8
+            | (data[offset + 2] & 0xff) << 16
+            | (data[offset + 3] & 0xff) << 24;
+    }
+
+    /**
+     * Copies the shared indexes of the archive into the cache folder.
+     * The indexes are copied only when the store contains the indexes
+     * for all the indexers and none of them already has any content in the cache
+     * folder. Empty index folders, created by the contexts before the scan, are reused.
+     * @param key the archive key
+     * @param cacheRoot the cache folder of the binary root
+     * @param indexers the indexers names and versions
+     * @return true when the indexes were copied
+     */
+    boolean importIndex(
+            @NonNull final String key,
+            @NonNull final FileObject cacheRoot,
+            @NonNull final Collection<? extends Pair<String,Integer>> indexers) {
+        final File target = FileUtil.toFile(cacheRoot);
+        final File source = new File(folder, key);
+        if (target == null || indexers.isEmpty() || !source.isDirectory()) {
+            return false;
+        }
+        for (Pair<String,Integer> indexer : indexers) {
+            final String path = getIndexerPath(indexer);
+            if (!new File(source, path).isDirectory() || hasContent(new File(target, path))) {
+                return false;
+            }
+        }
+        try {
+            for (Pair<String,Integer> indexer : indexers) {
+                final String path = getIndexerPath(indexer);
+                copy(new File(source, path).toPath(), new File(target, path).toPath());
+            }
+            LOG.log(Level.FINE, "Imported shared index: {0} into: {1}", new Object[]{source, target});  //NOI18N
+            return true;
+        } catch (IOException ioe) {
+            LOG.log(Level.INFO, "Cannot import shared index: {0}", source);    //NOI18N
+            LOG.log(Level.FINE, null, ioe);
+            for (Pair<String,Integer> indexer : indexers) {
+                delete(new File(target, getIndexerPath(indexer)).toPath());
+            }
+            return false;
+        } finally {
+            cacheRoot.refresh();
+        }
+    }
+
+    /**
+     * Publishes the indexes from the cache folder into the store.
+     * The index of each indexer is copied into a temporary folder and
+     * moved to its final location, already published indexes are kept.
+     * @param key the archive key
+     * @param cacheRoot the cache folder of the binary root
+     * @param indexers the indexers names and versions
+     */
+    void publish(
+            @NonNull final String key,
+            @NonNull final FileObject cacheRoot,
+            @NonNull final Collection<? extends Pair<String,Integer>> indexers) {
+        if (!publish) {
+            return;
+        }
+        final File source = FileUtil.toFile(cacheRoot);
+        if (source == null) {
+            return;
+        }
+        final File target = new File(folder, key);
+        for (Pair<String,Integer> indexer : indexers) {
+            final String path = getIndexerPath(indexer);
+            final File from = new File(source, path);
+            final File to = new File(target, path);
+            if (!from.isDirectory() || to.exists()) {
+                continue;
+            }
+            Path tmp = null;
+            try {
+                to.getParentFile().mkdirs();
+                tmp = Files.createTempDirectory(to.getParentFile().toPath(), TMP_PREFIX);
+                copy(from.toPath(), tmp);
+                Files.move(tmp, to.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                tmp = null;
+                LOG.log(Level.FINE, "Published shared index: {0}", to); //NOI18N
+            } catch (FileAlreadyExistsException e) {
+                //Published concurrently by other process
+            } catch (IOException ioe) {
+                LOG.log(Level.INFO, "Cannot publish shared index: {0}", to);    //NOI18N
+                LOG.log(Level.FINE, null, ioe);
+            } finally {
+                if (tmp != null) {
+                    delete(tmp);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the shared index store.
+     * @return the {@link SharedIndexStore} or null when no store is configured
+     */
+    @CheckForNull
+    static synchronized SharedIndexStore getDefault() {
+        if (!initialized) {
+            initialized = true;
+            final String location = System.getProperty(PROP_LOCATION);
+            if (location != null) {
+                final File folder = FileUtil.normalizeFile(new File(location));
+                final boolean publish = Boolean.getBoolean(PROP_PUBLISH);
+                if (publish) {
+                    folder.mkdirs();
+                }
+                if (folder.isDirectory() && folder.canRead()) {
+                    instance = new SharedIndexStore(folder, publish && folder.canWrite());
+                } else {
+                    LOG.log(Level.WARNING, "Ignoring invalid shared index store: {0}", folder);   //NOI18N
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Forgets the store so that it is configured again from the system properties.
+     * Used by tests.
+     */
+    static synchronized void reset() {
+        initialized = false;
+        instance = null;
+    }
+
+    private static boolean hasContent(@NonNull final File folder) {
+        if (!folder.exists()) {
+            return false;
+        }
+        final String[] children = folder.list();
+        return children == null || children.length > 0;
+    }
+
+    @NonNull
+    private static String getIndexerPath(@NonNull final Pair<String,Integer> indexer) {
+        return SPIAccessor.getInstance().getIndexerPath(indexer.first(), indexer.second());
+    }
+
+    private static void copy(
+            @NonNull final Path from,
+            @NonNull final Path to) throws IOException {
+        Files.walkFileTree(from, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(to.resolve(from.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.copy(file, to.resolve(from.relativize(file)), StandardCopyOption.REPLACE_EXISTING);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void delete(@NonNull final Path path) {
+        try {
+            if (!Files.exists(path)) {
+                return;
+            }
+            Files.walkFileTree(path, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Files.delete(file);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                    Files.delete(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException ioe) {
+            LOG.log(Level.FINE, null, ioe);
+        }
+    }
+}
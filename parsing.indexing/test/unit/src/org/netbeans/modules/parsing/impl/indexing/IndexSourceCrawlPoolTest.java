@@ -0,0 +1,256 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.netbeans.modules.parsing.impl.indexing;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.netbeans.junit.NbTestCase;
+import org.netbeans.modules.parsing.spi.indexing.Indexable;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+import org.openide.filesystems.URLMapper;
+import org.openide.util.Pair;
+
+/**
+ * Tests of {@link IndexSourceCrawlPool}.
+ */
+public class IndexSourceCrawlPoolTest extends NbTestCase {
+
+    private static final CancelRequest CR = new CancelRequest() {
+        @Override
+        public boolean isRaised() {
+            return false;
+        }
+    };
+
+    private static final Callable<Boolean> NOT_CANCELLED = new Callable<Boolean>() {
+        @Override
+        public Boolean call() throws Exception {
+            return false;
+        }
+    };
+
+    public IndexSourceCrawlPoolTest(String name) {
+        super(name);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        clearWorkDir();
+        final FileObject wdFO = FileUtil.toFileObject(getWorkDir());
+        final FileObject cache = FileUtil.createFolder(wdFO, "cache");  //NOI18N
+        CacheFolder.setCacheFolder(cache);
+    }
+
+    public void testPrefetchRespectsDependencies() throws Exception {
+        final URL r0 = root("r0");  //NOI18N
+        final URL r1 = root("r1");  //NOI18N
+        final URL r2 = root("r2");  //NOI18N
+        final URL r3 = root("r3");  //NOI18N
+        final Map<URL,List<URL>> deps = new HashMap<>();
+        deps.put(r2, Collections.singletonList(r1));
+        final Map<URL,List<URL>> peers = new HashMap<>();
+        peers.put(r3, Collections.singletonList(r0));
+        final Set<URL> applied = Collections.newSetFromMap(new ConcurrentHashMap<URL,Boolean>());
+        final IndexSourceCrawlPool pool = new IndexSourceCrawlPool(
+                new IndexBinaryWorkPool.Function<URL, Crawler>() {
+                    @Override
+                    public Crawler apply(URL root) {
+                        applied.add(root);
+                        return crawler(root);
+                    }
+                },
+                NOT_CANCELLED,
+                Arrays.asList(r0, r1, r2, r3),
+                deps,
+                peers);
+        try {
+            pool.prefetch(0);
+            assertNull("Indexed root is not crawled ahead", pool.take(r0));   //NOI18N
+            assertNotNull(pool.take(r1));
+            assertEquals(
+                "Roots depending on or peer of not yet indexed root are not crawled ahead", //NOI18N
+                Collections.singleton(r1),
+                applied);
+            pool.prefetch(1);
+            pool.prefetch(2);
+            assertNull("Root depending on the root indexed before is not crawled ahead", pool.take(r2));  //NOI18N
+            pool.prefetch(3);
+            assertNotNull("Peer of already indexed root is crawled ahead", pool.take(r3));    //NOI18N
+            assertEquals(new HashSet<>(Arrays.asList(r1, r3)), applied);
+            assertNull("Taken crawl is not kept", pool.take(r3)); //NOI18N
+        } finally {
+            pool.cancel();
+        }
+    }
+
+    public void testTakeSameAsSequentialCrawl() throws Exception {
+        final URL r0 = root("r0", "org/a/A.txt", "org/b/B.txt");    //NOI18N
+        final URL r1 = root("r1", "org/c/C.txt", "org/c/d/D.txt", "E.txt");    //NOI18N
+        final IndexSourceCrawlPool pool = new IndexSourceCrawlPool(
+                new IndexBinaryWorkPool.Function<URL, Crawler>() {
+                    @Override
+                    public Crawler apply(URL root) {
+                        final Crawler c = crawler(root);
+                        try {
+                            c.getResources();
+                        } catch (IOException ioe) {
+                            throw new IllegalStateException(ioe);
+                        }
+                        return c;
+                    }
+                },
+                NOT_CANCELLED,
+                Arrays.asList(r0, r1),
+                Collections.<URL,List<URL>>emptyMap(),
+                Collections.<URL,List<URL>>emptyMap());
+        try {
+            pool.prefetch(0);
+            final Pair<Crawler,Long> prefetched = pool.take(r1);
+            assertNotNull(prefetched);
+            assertTrue(prefetched.first().isFinished());
+            final Crawler sequential = crawler(r1);
+            assertEquals(paths(sequential.getResources()), paths(prefetched.first().getResources()));
+            assertEquals(paths(sequential.getAllResources()), paths(prefetched.first().getAllResources()));
+            assertEquals(paths(sequential.getDeletedResources()), paths(prefetched.first().getDeletedResources()));
+            assertEquals(
+                Arrays.asList("E.txt", "org/c/C.txt", "org/c/d/D.txt"),  //NOI18N
+                paths(prefetched.first().getResources()));
+        } finally {
+            pool.cancel();
+        }
+    }
+
+    public void testCancel() throws Exception {
+        final List<URL> roots = new ArrayList<>();
+        for (int i = 0; i <= 2 * IndexSourceCrawlPool.PROC_COUNT; i++) {
+            roots.add(root("r" + i));   //NOI18N
+        }
+        final Set<URL> started = Collections.newSetFromMap(new ConcurrentHashMap<URL,Boolean>());
+        final CountDownLatch running = new CountDownLatch(IndexSourceCrawlPool.PROC_COUNT);
+        final CountDownLatch release = new CountDownLatch(1);
+        final IndexBinaryWorkPool.Function<URL,Crawler> blocking = new IndexBinaryWorkPool.Function<URL, Crawler>() {
+            @Override
+            public Crawler apply(URL root) {
+                started.add(root);
+                running.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+                return crawler(root);
+            }
+        };
+        final IndexSourceCrawlPool pool = new IndexSourceCrawlPool(
+                blocking,
+                NOT_CANCELLED,
+                roots,
+                Collections.<URL,List<URL>>emptyMap(),
+                Collections.<URL,List<URL>>emptyMap());
+        pool.prefetch(0);
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+        pool.cancel();
+        release.countDown();
+        for (URL root : roots) {
+            assertNull("Nothing kept after cancel", pool.take(root));  //NOI18N
+        }
+        //The tasks are run in order, when a later one finishes the cancelled ones would have been started
+        final URL last = root("last");  //NOI18N
+        final IndexSourceCrawlPool pool2 = new IndexSourceCrawlPool(
+                blocking,
+                NOT_CANCELLED,
+                Arrays.asList(roots.get(0), last),
+                Collections.<URL,List<URL>>emptyMap(),
+                Collections.<URL,List<URL>>emptyMap());
+        pool2.prefetch(0);
+        assertNotNull(pool2.take(last));
+        started.remove(last);
+        assertEquals("Queued crawls not started", IndexSourceCrawlPool.PROC_COUNT, started.size());   //NOI18N
+    }
+
+    public void testDrop() throws Exception {
+        final URL r0 = root("r0");  //NOI18N
+        final URL r1 = root("r1");  //NOI18N
+        final IndexSourceCrawlPool pool = new IndexSourceCrawlPool(
+                new IndexBinaryWorkPool.Function<URL, Crawler>() {
+                    @Override
+                    public Crawler apply(URL root) {
+                        return crawler(root);
+                    }
+                },
+                NOT_CANCELLED,
+                Arrays.asList(r0, r1),
+                Collections.<URL,List<URL>>emptyMap(),
+                Collections.<URL,List<URL>>emptyMap());
+        pool.prefetch(0);
+        pool.drop(r1);
+        assertNull("Dropped crawl is not kept", pool.take(r1));    //NOI18N
+    }
+
+    private URL root(
+            final String name,
+            final String... files) throws IOException {
+        final FileObject root = FileUtil.createFolder(new File(getWorkDir(), name));
+        for (String file : files) {
+            FileUtil.createData(root, file);
+        }
+        return root.toURL();
+    }
+
+    private static Crawler crawler(final URL root) {
+        final FileObject rootFo = URLMapper.findFileObject(root);
+        assertNotNull(rootFo);
+        try {
+            return new FileObjectCrawler(
+                    rootFo,
+                    EnumSet.<Crawler.TimeStampAction>of(Crawler.TimeStampAction.UPDATE),
+                    null,
+                    CR,
+                    SuspendSupport.NOP);
+        } catch (IOException ioe) {
+            throw new IllegalStateException(ioe);
+        }
+    }
+
+    private static List<String> paths(final Iterable<? extends Indexable> indexables) {
+        final List<String> res = new ArrayList<>();
+        if (indexables != null) {
+            for (Indexable i : indexables) {
+                res.add(i.getRelativePath());
+            }
+        }
+        Collections.sort(res);
+        return res;
+    }
+}
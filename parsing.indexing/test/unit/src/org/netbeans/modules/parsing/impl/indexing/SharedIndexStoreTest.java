@@ -0,0 +1,300 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.netbeans.modules.parsing.impl.indexing;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.netbeans.api.annotations.common.NonNull;
+import org.netbeans.api.editor.mimelookup.MimePath;
+import org.netbeans.api.editor.mimelookup.test.MockMimeLookup;
+import org.netbeans.api.java.classpath.ClassPath;
+import org.netbeans.api.java.classpath.GlobalPathRegistry;
+import static org.netbeans.modules.parsing.impl.indexing.FooPathRecognizer.FOO_BINARY;
+import static org.netbeans.modules.parsing.impl.indexing.FooPathRecognizer.FOO_MIME;
+import org.netbeans.modules.parsing.spi.indexing.BinaryIndexer;
+import org.netbeans.modules.parsing.spi.indexing.BinaryIndexerFactory;
+import org.netbeans.modules.parsing.spi.indexing.Context;
+import org.netbeans.spi.java.classpath.support.ClassPathSupport;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+
+/**
+ * Tests publishing binary indexes into the {@link SharedIndexStore} and
+ * importing them for an archive with the same content.
+ */
+public class SharedIndexStoreTest extends IndexingTestBase {
+
+    private static final String PROP_LOCATION = "netbeans.indexing.sharedIndex";   //NOI18N
+    private static final String PROP_PUBLISH = "netbeans.indexing.sharedIndex.publish";   //NOI18N
+    private static final String INDEX_FILE = "index.txt";   //NOI18N
+
+    private final Map<String, Map<ClassPath,Void>> registeredClasspaths = new HashMap<String, Map<ClassPath,Void>>();
+    private final RepositoryUpdaterTest.TestHandler handler = new RepositoryUpdaterTest.TestHandler();
+
+    private File store;
+    private BinIndexerFactory binFactory1;
+    private BinIndexerFactory binFactory2;
+
+    public SharedIndexStoreTest(@NonNull final String name) {
+        super(name);
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        clearWorkDir();
+        final File _wd = getWorkDir();
+        final FileObject wd = FileUtil.toFileObject(_wd);
+        assertNotNull("No masterfs",wd);                    //NOI18N
+        final FileObject cache = wd.createFolder("cache");  //NOI18N
+        CacheFolder.setCacheFolder(cache);
+        store = new File(_wd, "store");   //NOI18N
+        binFactory1 = new BinIndexerFactory("binFactory1", 1);  //NOI18N
+        binFactory2 = new BinIndexerFactory("binFactory2", 2);  //NOI18N
+        MockMimeLookup.setInstances(MimePath.EMPTY, binFactory1, binFactory2);
+        RepositoryUpdaterTest.setMimeTypes(FOO_MIME);
+        RepositoryUpdaterTest.waitForRepositoryUpdaterInit();
+        final Logger logger = Logger.getLogger(RepositoryUpdater.class.getName()+".tests"); //NOI18N
+        logger.setLevel (Level.FINEST);
+        logger.addHandler(handler);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        final Logger logger = Logger.getLogger(RepositoryUpdater.class.getName()+".tests"); //NOI18N
+        try {
+            for(String id : registeredClasspaths.keySet()) {
+                final Map<ClassPath,Void> classpaths = registeredClasspaths.get(id);
+                handler.reset();
+                GlobalPathRegistry.getDefault().unregister(id, classpaths.keySet().toArray(new ClassPath[classpaths.size()]));
+                handler.await();
+            }
+        } finally {
+            logger.removeHandler(handler);
+            System.clearProperty(PROP_LOCATION);
+            System.clearProperty(PROP_PUBLISH);
+            SharedIndexStore.reset();
+        }
+        super.tearDown();
+    }
+
+    public void testPublishAndImport() throws Exception {
+        final File lib1 = createJar("lib1.jar", "a/A.class", "a/B.class");  //NOI18N
+        final File lib2 = new File(getWorkDir(), "lib2.jar");   //NOI18N
+        Files.copy(lib1.toPath(), lib2.toPath());
+        final File lib3 = createJar("lib3.jar", "a/A.class", "a/C.class");  //NOI18N
+
+        //Publishing run, e.g. on CI
+        configureStore(true);
+        final URL root1 = register(lib1);
+        assertEquals(1, binFactory1.allFilesCount(root1));
+        assertEquals(1, binFactory2.allFilesCount(root1));
+        final SharedIndexStore sharedStore = SharedIndexStore.getDefault();
+        assertNotNull(sharedStore);
+        final String key = sharedStore.getKey(FileUtil.toFileObject(lib1));
+        assertNotNull(key);
+        assertEquals(root1.toExternalForm(), read(new File(new File(new File(store, key), "binFactory1"), "1")));  //NOI18N
+        assertEquals(root1.toExternalForm(), read(new File(new File(new File(store, key), "binFactory2"), "2")));  //NOI18N
+
+        //Importing run, the archive with the same content is not indexed
+        configureStore(false);
+        assertEquals(key, SharedIndexStore.getDefault().getKey(FileUtil.toFileObject(lib2)));
+        final URL root2 = register(lib2);
+        assertEquals(0, binFactory1.allFilesCount(root2));
+        assertEquals(0, binFactory2.allFilesCount(root2));
+        assertEquals(1, binFactory1.upToDateCount(root2));
+        assertEquals(1, binFactory2.upToDateCount(root2));
+        assertEquals("Imported index seen by the indexer", root1.toExternalForm(), binFactory1.seen.get(root2));   //NOI18N
+        assertEquals("Imported index seen by the indexer", root1.toExternalForm(), binFactory2.seen.get(root2));   //NOI18N
+        assertEquals("Import is recorded as up to date",   //NOI18N
+                FileUtil.toFileObject(lib2).lastModified().getTime(),
+                (long) ArchiveTimeStamps.getLastModified(root2).first());
+
+        //Different content is indexed
+        assertFalse(key.equals(SharedIndexStore.getDefault().getKey(FileUtil.toFileObject(lib3))));
+        final URL root3 = register(lib3);
+        assertEquals(1, binFactory1.allFilesCount(root3));
+        assertEquals(1, binFactory2.allFilesCount(root3));
+    }
+
+    public void testNotImportedWhenIndexerMissing() throws Exception {
+        final File lib1 = createJar("lib1.jar", "a/A.class");  //NOI18N
+        final File lib2 = new File(getWorkDir(), "lib2.jar");   //NOI18N
+        Files.copy(lib1.toPath(), lib2.toPath());
+
+        configureStore(true);
+        final URL root1 = register(lib1);
+        assertEquals(1, binFactory1.allFilesCount(root1));
+        final String key = SharedIndexStore.getDefault().getKey(FileUtil.toFileObject(lib1));
+        deleteRecursively(new File(new File(store, key), "binFactory2"));   //NOI18N
+
+        configureStore(false);
+        final URL root2 = register(lib2);
+        assertEquals(1, binFactory1.allFilesCount(root2));
+        assertEquals(1, binFactory2.allFilesCount(root2));
+    }
+
+    private void configureStore(final boolean publish) {
+        System.setProperty(PROP_LOCATION, store.getAbsolutePath());
+        System.setProperty(PROP_PUBLISH, Boolean.toString(publish));
+        SharedIndexStore.reset();
+    }
+
+    private URL register(@NonNull final File jar) throws Exception {
+        final FileObject root = FileUtil.getArchiveRoot(FileUtil.toFileObject(jar));
+        assertNotNull(root);
+        final ClassPath cp = ClassPathSupport.createClassPath(root);
+        handler.reset();
+        Map<ClassPath,Void> map = registeredClasspaths.get(FOO_BINARY);
+        if (map == null) {
+            map = new IdentityHashMap<ClassPath, Void>();
+            registeredClasspaths.put(FOO_BINARY, map);
+        }
+        map.put(cp, null);
+        GlobalPathRegistry.getDefault().register(FOO_BINARY, new ClassPath[] {cp});
+        assertTrue(handler.await());
+        assertTrue(handler.getBinaries().contains(root.toURL()));
+        return root.toURL();
+    }
+
+    private File createJar(
+            @NonNull final String name,
+            @NonNull final String... entries) throws IOException {
+        final File jar = new File(getWorkDir(), name);
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(jar))) {
+            for (String entry : entries) {
+                out.putNextEntry(new ZipEntry(entry));
+                out.write(entry.getBytes("UTF-8"));    //NOI18N
+                out.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private static String read(@NonNull final File indexFolder) throws IOException {
+        final File f = new File(indexFolder, INDEX_FILE);
+        return f.isFile() ?
+            new String(Files.readAllBytes(f.toPath()), "UTF-8") :  //NOI18N
+            null;
+    }
+
+    private static void deleteRecursively(@NonNull final File f) {
+        final File[] children = f.listFiles();
+        if (children != null) {
+            for (File c : children) {
+                deleteRecursively(c);
+            }
+        }
+        f.delete();
+    }
+
+    private static class BinIndexer extends BinaryIndexer {
+        private final BinIndexerFactory factory;
+
+        BinIndexer(@NonNull final BinIndexerFactory factory) {
+            this.factory = factory;
+        }
+
+        @Override
+        protected void index(Context context) {
+            final URL root = context.getRootURI();
+            try {
+                final File folder = FileUtil.toFile(context.getIndexFolder());
+                if (context.isAllFilesIndexing()) {
+                    factory.count(factory.allFiles, root);
+                    try (OutputStream out = new FileOutputStream(new File(folder, INDEX_FILE))) {
+                        out.write(root.toExternalForm().getBytes("UTF-8")); //NOI18N
+                    }
+                } else {
+                    factory.count(factory.upToDate, root);
+                    final String data = read(folder);
+                    if (data != null) {
+                        factory.seen.put(root, data);
+                    }
+                }
+            } catch (IOException ioe) {
+                throw new IllegalStateException(ioe);
+            }
+        }
+    }
+
+    private static class BinIndexerFactory extends BinaryIndexerFactory {
+
+        private final String name;
+        private final int version;
+        final Map<URL,Integer> allFiles = new ConcurrentHashMap<URL, Integer>();
+        final Map<URL,Integer> upToDate = new ConcurrentHashMap<URL, Integer>();
+        final Map<URL,String> seen = new ConcurrentHashMap<URL, String>();
+
+        BinIndexerFactory(
+                @NonNull final String name,
+                final int version) {
+            this.name = name;
+            this.version = version;
+        }
+
+        @Override
+        public BinaryIndexer createIndexer() {
+            return new BinIndexer(this);
+        }
+
+        @Override
+        public void rootsRemoved(Iterable<? extends URL> removedRoots) {
+        }
+
+        @Override
+        public String getIndexerName() {
+            return name;
+        }
+
+        @Override
+        public int getIndexVersion() {
+            return version;
+        }
+
+        synchronized void count(
+                @NonNull final Map<URL,Integer> counts,
+                @NonNull final URL root) {
+            final Integer cnt = counts.get(root);
+            counts.put(root, cnt == null ? 1 : cnt + 1);
+        }
+
+        int allFilesCount(@NonNull final URL root) {
+            final Integer cnt = allFiles.get(root);
+            return cnt == null ? 0 : cnt;
+        }
+
+        int upToDateCount(@NonNull final URL root) {
+            final Integer cnt = upToDate.get(root);
+            return cnt == null ? 0 : cnt;
+        }
+    }
+}
@@ -98,6 +98,13 @@ public class LuceneIndex implements Index.Transactional, Index.WithTermFrequenci
     private static final String DIR_TYPE_MMAP = "mmap";                 //NOI18N
     private static final String DIR_TYPE_NIO = "nio";                   //NOI18N
     private static final String DIR_TYPE_IO = "io";                     //NOI18N
+    private static final String PROP_MEM_BATCH = "java.index.memBatch"; //NOI18N
+    /**
+     * Batches smaller than this are added to the index writer directly,
+     * the in-memory segment followed by addIndexes pays off only for
+     * larger batches, typically the initial scan.
+     */
+    private static final int MEM_BATCH = Integer.getInteger(PROP_MEM_BATCH, 100);
     private static final CachePolicy DEFAULT_CACHE_POLICY = CachePolicy.DYNAMIC;
     private static final CachePolicy cachePolicy = getCachePolicy();
     private static final Logger LOGGER = Logger.getLogger(LuceneIndex.class.getName());
@@ -419,7 +426,7 @@ public class LuceneIndex implements Index.Transactional, Index.WithTermFrequenci
             final LowMemoryWatcher lmListener = LowMemoryWatcher.getInstance();
             Directory memDir = null;
             IndexWriter activeOut = null;
-            if (lmListener.isLowMemory()) {
+            if (data.size() < MEM_BATCH || lmListener.isLowMemory()) {
                 activeOut = out;
             } else {
                 memDir = new RAMDirectory ();
@@ -241,6 +241,7 @@ public class OQLEngineImpl {
             }
 
             if (q.className != null) {
+                boolean identitySelect = q.isIdentitySelect();
                 Stack toInspect = new Stack();
                 Set inspected = new HashSet();
 
@@ -258,10 +259,18 @@ public class OQLEngineImpl {
                             }
                         }
                     }
-                    List objects = clz.getInstances();
+                    Iterator objects = clz.getInstancesIterator();
 
-                    for (Object obj : objects) {
-                        Object wrapped = wrapJavaObject((Instance) obj);
+                    while (objects.hasNext() && !cancelled.get()) {
+                        Instance obj = (Instance) objects.next();
+                        if (identitySelect && whereCs == null) {
+                            // "select x from Class x" - no need to round-trip through JS
+                            if (visitor.visit(obj)) {
+                                return;
+                            }
+                            continue;
+                        }
+                        Object wrapped = wrapJavaObject(obj);
                         boolean b = (whereCs == null);
                         if (!b) {
                             bindings.put(q.identifier, wrapped);
@@ -276,6 +285,12 @@ public class OQLEngineImpl {
                         }
 
                         if (b) {
+                            if (identitySelect) {
+                                if (visitor.visit(obj)) {
+                                    return;
+                                }
+                                continue;
+                            }
                             bindings.put(q.identifier, wrapped);
                             Object select = selectCs.eval(bindings);
                             if (dispatchValue(select, visitor)) {
@@ -36,6 +36,15 @@ public class OQLQueryImpl extends OQLQuery {
         this.whereExpr = whereExpr;
     }
 
+    /**
+     * Checks whether the select expression just returns the iterated object,
+     * ie. the query has form <code>select x from Class x [where ...]</code>.
+     * Such queries can pass the heap instances to the visitor directly.
+     */
+    boolean isIdentitySelect() {
+        return identifier != null && identifier.equals(selectExpr.trim());
+    }
+
     String   selectExpr;
     boolean  isInstanceOf;
     String   className;
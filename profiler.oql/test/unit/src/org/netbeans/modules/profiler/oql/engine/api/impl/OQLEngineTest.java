@@ -109,6 +109,28 @@ public class OQLEngineTest {
         assertTrue(rslt[0]);
     }
 
+    @Test
+    public void testIdentitySelect() throws Exception {
+        final int[] counts = new int[2];
+        instance.executeQuery("select s from java.lang.String s", new ObjectVisitor() {
+
+            public boolean visit(Object o) {
+                assertTrue(o instanceof Instance);
+                counts[0]++;
+                return false;
+            }
+        });
+        instance.executeQuery("select count(heap.objects('java.lang.String', false))", new ObjectVisitor() {
+
+            public boolean visit(Object o) {
+                counts[1] = ((Number) o).intValue();
+                return true;
+            }
+        });
+        assertTrue(counts[0] > 0);
+        assertEquals(counts[1], counts[0]);
+    }
+
     @Test
     public void testClassFields() throws Exception {
         System.out.println("test class fields");